@@ -0,0 +1,124 @@
+package com.example.ad_integration_sdk.ads;
+
+import android.app.Instrumentation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.ad_integration_sdk.network.AdData;
+import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.utils.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Preloader refills against the test-mode NetworkClient, whose mock ads arrive after
+ * 500 ms. Runs on a device because the preloader lives on the main looper.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FullscreenAdPreloaderTest {
+
+    private static final String PLACEMENT = "level_end";
+    private static final String TYPE = Constants.AD_TYPE_INTERSTITIAL;
+    private static final long TIMEOUT_MS = 5000;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private NetworkClient networkClient;
+    private FullscreenAdPreloader preloader;
+
+    @Before
+    public void setUp() {
+        networkClient = new NetworkClient("test_publisher", true);
+        instrumentation.runOnMainSync(() -> {
+            preloader = new FullscreenAdPreloader(networkClient);
+            preloader.onAppForeground();
+        });
+    }
+
+    @Test
+    public void fillsPlacementToTarget() throws Exception {
+        instrumentation.runOnMainSync(() -> preloader.setTarget(PLACEMENT, TYPE, 2));
+        awaitReady(2);
+    }
+
+    @Test
+    public void loadWithoutShowRefillsStock() throws Exception {
+        instrumentation.runOnMainSync(() -> preloader.setTarget(PLACEMENT, TYPE, 2));
+        awaitReady(2);
+
+        AtomicReference<AdData> loaded = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> networkClient.loadAd(PLACEMENT, TYPE, new NetworkClient.AdLoadCallback() {
+            @Override
+            public void onAdLoaded(AdData adData) {
+                loaded.set(adData);
+            }
+
+            @Override
+            public void onAdFailedToLoad(String error) {
+                fail(error);
+            }
+        }));
+        await(() -> loaded.get() != null);
+
+        // The ad is never shown; the preloader still replaces it
+        awaitReady(2);
+        assertEquals(1, networkClient.getInventoryCache().getStats(PLACEMENT, TYPE).hits);
+    }
+
+    @Test
+    public void wakesAtNextExpiry() throws Exception {
+        networkClient.getInventoryCache().setMaxAgeMs(10 * 60 * 1000);
+        instrumentation.runOnMainSync(() -> preloader.setTarget(PLACEMENT, TYPE, 1));
+        awaitReady(1);
+
+        // A full stock sleeps until its ad goes stale, not on a fixed interval
+        long delay = onMain(preloader::getExpiryCheckDelayMs);
+        assertTrue("delay " + delay, delay > 9 * 60 * 1000 && delay <= 10 * 60 * 1000);
+
+        // A shorter TTL brings the wake-up forward, and a fresh ad replaces the stale one
+        networkClient.getInventoryCache().setMaxAgeMs(2000);
+        instrumentation.runOnMainSync(() -> preloader.setTarget(PLACEMENT, TYPE, 1));
+        delay = onMain(preloader::getExpiryCheckDelayMs);
+        assertTrue("delay " + delay, delay <= 2000);
+        long firstStaleAt = networkClient.getInventoryCache().getNextStaleAt(PLACEMENT, TYPE);
+        await(() -> networkClient.getInventoryCache().getNextStaleAt(PLACEMENT, TYPE) > firstStaleAt);
+    }
+
+    @Test
+    public void idleWithoutTargets() throws Exception {
+        assertEquals(-1L, (long) onMain(preloader::getExpiryCheckDelayMs));
+    }
+
+    // Harness
+
+    private void awaitReady(int count) throws Exception {
+        await(() -> preloader.getReadyCount(PLACEMENT, TYPE) == count);
+    }
+
+    private void await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!onMain(condition)) {
+            assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private <T> T onMain(Callable<T> callable) {
+        AtomicReference<T> result = new AtomicReference<>();
+        instrumentation.runOnMainSync(() -> {
+            try {
+                result.set(callable.call());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return result.get();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.ad_integration_sdk.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * On-device microbenchmark for the banner renderers: banner_ad_layout against
+ * FlatBannerView. Each op is a forced measure, layout and software draw of a 320x50dp
+ * banner showing a creative; state switches are timed separately.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BannerRenderBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Test
+    public void benchmark_renderContent() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Bitmap creative = creative();
+            View layout = inflatedBanner(creative);
+            FlatBannerView flat = new FlatBannerView(context);
+            flat.showContent(creative);
+
+            double layoutNs = measure(layout, null);
+            double flatNs = measure(flat, null);
+            report("render content", layoutNs, flatNs);
+        });
+    }
+
+    @Test
+    public void benchmark_stateSwitch() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Bitmap creative = creative();
+            View layout = inflatedBanner(creative);
+            View loading = layout.findViewById(R.id.loading_container);
+            View content = layout.findViewById(R.id.content_container);
+            FlatBannerView flat = new FlatBannerView(context);
+            flat.showContent(creative);
+
+            double layoutNs = measure(layout, i -> {
+                boolean showContent = i % 2 == 0;
+                loading.setVisibility(showContent ? View.GONE : View.VISIBLE);
+                content.setVisibility(showContent ? View.VISIBLE : View.GONE);
+            });
+            double flatNs = measure(flat, i -> {
+                if (i % 2 == 0) {
+                    flat.showContent(creative);
+                } else {
+                    flat.showLoading();
+                }
+            });
+            report("switch state", layoutNs, flatNs);
+        });
+    }
+
+    @Test
+    public void flatView_tracksState() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            FlatBannerView flat = new FlatBannerView(context);
+            assertEquals(FlatBannerView.STATE_LOADING, flat.getState());
+            flat.showError();
+            assertEquals(FlatBannerView.STATE_ERROR, flat.getState());
+            flat.showContent(creative());
+            assertEquals(FlatBannerView.STATE_CONTENT, flat.getState());
+            flat.clearContent();
+            assertEquals(FlatBannerView.STATE_CONTENT, flat.getState());
+        });
+    }
+
+    // Harness
+
+    private interface Step {
+        void before(int iteration);
+    }
+
+    private double measure(View view, Step step) {
+        int width = dp(320);
+        int height = dp(50);
+        Bitmap target = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(target);
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            renderOnce(view, step, i, widthSpec, heightSpec, canvas);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            renderOnce(view, step, i, widthSpec, heightSpec, canvas);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        target.recycle();
+        return (double) elapsed / MEASURED_ITERATIONS;
+    }
+
+    private static void renderOnce(View view, Step step, int iteration, int widthSpec, int heightSpec, Canvas canvas) {
+        if (step != null) step.before(iteration);
+        // Force a full pass each time, as a rebind or state change would
+        view.forceLayout();
+        view.measure(widthSpec, heightSpec);
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        view.draw(canvas);
+    }
+
+    private View inflatedBanner(Bitmap creative) {
+        FrameLayout parent = new FrameLayout(context);
+        View banner = LayoutInflater.from(context).inflate(R.layout.banner_ad_layout, parent, false);
+        banner.findViewById(R.id.loading_container).setVisibility(View.GONE);
+        banner.findViewById(R.id.error_container).setVisibility(View.GONE);
+        banner.findViewById(R.id.content_container).setVisibility(View.VISIBLE);
+        ((ImageView) banner.findViewById(R.id.ad_image)).setImageBitmap(creative);
+        ((TextView) banner.findViewById(R.id.ad_label)).setText("Ad");
+        return banner;
+    }
+
+    private Bitmap creative() {
+        Bitmap bitmap = Bitmap.createBitmap(dp(320), dp(50), Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(Color.DKGRAY);
+        return bitmap;
+    }
+
+    private int dp(int value) {
+        return Math.round(value * context.getResources().getDisplayMetrics().density);
+    }
+
+    private static void report(String op, double layoutNs, double flatNs) {
+        System.out.printf("Banner %s: layout %.1f us/op, flat %.1f us/op%n",
+                op, layoutNs / 1000, flatNs / 1000);
+    }
+}
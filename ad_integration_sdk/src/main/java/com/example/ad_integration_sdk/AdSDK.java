@@ -99,13 +99,20 @@
 package com.example.ad_integration_sdk;
 
 import android.content.Context;
+import com.example.ad_integration_sdk.ads.FullscreenAdPreloader;
 import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.ui.PosterFrameCache;
+import com.example.ad_integration_sdk.ui.RenderMetrics;
+import com.example.ad_integration_sdk.utils.AppStateMonitor;
 import com.example.ad_integration_sdk.utils.Logger;
 import com.example.ad_integration_sdk.utils.PreferencesHelper;
 
+import java.io.File;
+
 public class AdSDK {
     private static final String TAG = "AdSDK";
     private static final String SDK_VERSION = "1.0.0";
+    private static final String SDK_DIR = "adsdk";
 
     private static AdSDK instance;
     private static boolean isInitialized = false;
@@ -114,6 +121,9 @@ public class AdSDK {
     private Context context;
     private String publisherId;
     private NetworkClient networkClient;
+    private FullscreenAdPreloader preloader;
+    private final RenderMetrics renderMetrics = new RenderMetrics();
+    private PosterFrameCache posterFrames;
 
     private AdSDK() {}
 
@@ -132,10 +142,23 @@ public class AdSDK {
 
         // Initialize helpers
         PreferencesHelper.init(context);
+        AppStateMonitor.init(context);
 
         // Pass testMode flag into NetworkClient
         instance.networkClient = new NetworkClient(publisherId, isTestMode);
 
+        // Replay tracking events a previous process logged but never delivered; the log opens off the main thread
+        instance.networkClient.enableDurableTracking(new File(instance.context.getFilesDir(), SDK_DIR));
+
+        // Video creatives are downloaded when ads load and played from disk
+        instance.networkClient.enableCreativeCache(new File(instance.context.getCacheDir(), SDK_DIR + "/creatives"));
+        // First frames shown while those videos buffer
+        instance.posterFrames = new PosterFrameCache(instance.context, new File(instance.context.getCacheDir(), SDK_DIR + "/posters"));
+
+        // Keeps fullscreen placements stocked once the app sets targets
+        instance.preloader = new FullscreenAdPreloader(instance.networkClient);
+        AppStateMonitor.addListener(instance.preloader);
+
         isInitialized = true;
         Logger.i(TAG, "AdSDK v" + SDK_VERSION + " initialized (testMode=" + isTestMode + ")");
     }
@@ -158,6 +181,9 @@ public class AdSDK {
     public Context getContext() { return context; }
     public String getPublisherId() { return publisherId; }
     public NetworkClient getNetworkClient() { return networkClient; }
+    public FullscreenAdPreloader getPreloader() { return preloader; }
+    public RenderMetrics getRenderMetrics() { return renderMetrics; }
+    public PosterFrameCache getPosterFrames() { return posterFrames; }
     public boolean isTestMode() { return isTestMode; }
 }
 
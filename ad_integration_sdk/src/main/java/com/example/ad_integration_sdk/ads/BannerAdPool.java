@@ -0,0 +1,127 @@
+package com.example.ad_integration_sdk.ads;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.ViewGroup;
+
+import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of inflated BannerAdViews for feeds.
+ * Each view inflates banner_ad_layout once; after that rows acquire a view, bind an
+ * AdData and release it when recycled, so scrolling never inflates. prewarm() inflates
+ * ahead of time while the main thread is idle.
+ *
+ * Views hold the pool's context, so use one pool per Activity and clear() it in
+ * onDestroy. All methods must be called on the main thread.
+ */
+public class BannerAdPool {
+    private static final String TAG = "BannerAdPool";
+
+    public static final int DEFAULT_MAX_SIZE = 8;
+
+    private final Context context;
+    private final AdSize adSize;
+    private final int maxSize;
+    private final BannerAdView.RenderMode renderMode;
+    private final Deque<BannerAdView> pool = new ArrayDeque<>();
+    private int prewarmRemaining = 0;
+
+    // Stats
+    private long createdCount = 0;
+    private long reusedCount = 0;
+
+    public BannerAdPool(Context context, AdSize adSize) {
+        this(context, adSize, DEFAULT_MAX_SIZE);
+    }
+
+    public BannerAdPool(Context context, AdSize adSize, int maxSize) {
+        this(context, adSize, maxSize, BannerAdView.RenderMode.LAYOUT);
+    }
+
+    public BannerAdPool(Context context, AdSize adSize, int maxSize, BannerAdView.RenderMode renderMode) {
+        this.context = context;
+        this.adSize = adSize != null ? adSize : AdSize.BANNER;
+        this.maxSize = Math.max(1, maxSize);
+        this.renderMode = renderMode != null ? renderMode : BannerAdView.RenderMode.LAYOUT;
+    }
+
+    /** Inflate views until the pool holds {@code count}, one per main-thread idle pass. */
+    public void prewarm(int count) {
+        boolean scheduled = prewarmRemaining > 0;
+        prewarmRemaining = Math.max(prewarmRemaining, Math.min(count, maxSize) - pool.size());
+        if (scheduled || prewarmRemaining <= 0) return;
+
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (prewarmRemaining <= 0 || pool.size() >= maxSize) {
+                    prewarmRemaining = 0;
+                    return false;
+                }
+                pool.addLast(create());
+                return --prewarmRemaining > 0;
+            }
+        });
+    }
+
+    /** A banner ready to bind: pooled if one is free, otherwise newly inflated. */
+    public BannerAdView acquire() {
+        BannerAdView view = pool.pollFirst();
+        if (view != null) {
+            reusedCount++;
+            return view;
+        }
+        return create();
+    }
+
+    /** Return a banner once its row is recycled. It is unbound; past the pool size it is destroyed. */
+    public void release(BannerAdView view) {
+        if (view == null) return;
+        if (view.getParent() instanceof ViewGroup) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        view.unbind();
+        if (pool.size() < maxSize && !pool.contains(view)) {
+            pool.addLast(view);
+        } else {
+            view.destroy();
+        }
+    }
+
+    /** Drop every pooled view. */
+    public void clear() {
+        prewarmRemaining = 0;
+        for (BannerAdView view : pool) {
+            view.destroy();
+        }
+        pool.clear();
+    }
+
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    /** Views inflated by this pool so far. */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /** acquire() calls served without inflating. */
+    public long getReusedCount() {
+        return reusedCount;
+    }
+
+    private BannerAdView create() {
+        BannerAdView view = BannerAdView.create(context, renderMode);
+        view.setAdSize(adSize);
+        createdCount++;
+        Logger.d(TAG, "Inflated banner " + createdCount + " for " + adSize.getName());
+        return view;
+    }
+}
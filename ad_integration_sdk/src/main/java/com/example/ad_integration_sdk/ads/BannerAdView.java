@@ -3,6 +3,7 @@ package com.example.ad_integration_sdk.ads;
 import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,29 +20,53 @@ import com.example.ad_integration_sdk.AdSDK;
 import com.example.ad_integration_sdk.R;
 import com.example.ad_integration_sdk.network.AdData;
 import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.ui.FlatBannerView;
+import com.example.ad_integration_sdk.ui.PredecodedImage;
+import com.example.ad_integration_sdk.ui.RenderMetrics;
+import com.example.ad_integration_sdk.ui.ViewabilityTracker;
 import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.Constants;
 import com.example.ad_integration_sdk.utils.Logger;
 
 /**
  * BannerAdView — Handles displaying, tracking, and user interactions for banner ads.
  * Supports only predefined AdSizes from AdSize.java
+ * In feeds, take views from a {@link BannerAdPool} and use bind/unbind instead of
+ * creating a view per row, and consider {@link RenderMode#FLAT}.
  */
 public class BannerAdView extends FrameLayout {
 
     private static final String TAG = "BannerAdView";
 
+    /** How the banner is drawn. */
+    public enum RenderMode {
+        /** banner_ad_layout: nested containers, an ImageView and a label TextView. */
+        LAYOUT,
+        /** A single {@link FlatBannerView} that draws every state itself. */
+        FLAT
+    }
+
     // UI components
     private FrameLayout loadingContainer;
     private FrameLayout errorContainer;
     private FrameLayout contentContainer;
     private ImageView adImage;
     private TextView adLabel;
+    // Set in FLAT mode instead of the views above
+    private FlatBannerView flatView;
 
     // Ad state
     private AdData currentAdData;
     private AdEventListener.BannerAdListener adListener;
     private boolean isLoaded = false;
     private boolean impressionTracked = false;
+    // Creative decoded at the banner's pixel size before the content is swapped in
+    private PredecodedImage predecodedImage;
+    // Bumped on every reset, so callbacks from a load the view has moved on from are dropped
+    private int bindGeneration = 0;
+    private String placementId;
+    private boolean requestInFlight = false;
+    private final BannerRefreshScheduler refreshScheduler = new BannerRefreshScheduler(this);
 
     // Fixed ad size
     private AdSize adSize = AdSize.BANNER; // Default
@@ -61,6 +86,21 @@ public class BannerAdView extends FrameLayout {
         init();
     }
 
+    // Private so that new BannerAdView(context, null) still resolves to the AttributeSet constructor
+    private BannerAdView(Context context, boolean flat) {
+        super(context);
+        if (flat) {
+            initFlat();
+        } else {
+            init();
+        }
+    }
+
+    /** A banner drawn in the given mode; null means {@link RenderMode#LAYOUT}. */
+    public static BannerAdView create(Context context, RenderMode renderMode) {
+        return new BannerAdView(context, renderMode == RenderMode.FLAT);
+    }
+
     private void init() {
         try {
             LayoutInflater.from(getContext()).inflate(R.layout.banner_ad_layout, this, true);
@@ -86,6 +126,17 @@ public class BannerAdView extends FrameLayout {
         }
     }
 
+    private void initFlat() {
+        flatView = new FlatBannerView(getContext());
+        addView(flatView, new FrameLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+        setupClickHandling();
+        showLoading();
+    }
+
+    public RenderMode getRenderMode() {
+        return flatView != null ? RenderMode.FLAT : RenderMode.LAYOUT;
+    }
+
     /**
      * Sets the predefined ad size for this banner.
      * Only AdSize constants are allowed.
@@ -120,9 +171,53 @@ public class BannerAdView extends FrameLayout {
     }
 
     public void destroy() {
-        currentAdData = null;
-        isLoaded = false;
-        impressionTracked = false;
+        cancelImageLoad();
+        resetState();
+        refreshScheduler.setInterval(0);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        refreshScheduler.onAttached();
+        watchViewability();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        refreshScheduler.onDetached();
+        // Viewable time has to be continuous; start over when attached again
+        ViewabilityTracker.unregister(this);
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Show an ad loaded elsewhere, e.g. the AdData of a feed item, without inflating
+     * or requesting anything. The listener is not told about the load.
+     */
+    public void bind(AdData adData) {
+        cancelImageLoad();
+        resetState();
+        if (adData == null || !adData.isValid() || !adData.hasImage()) {
+            Logger.w(TAG, "Cannot bind invalid ad data");
+            showError();
+            return;
+        }
+        currentAdData = adData;
+        displayAd();
+    }
+
+    /**
+     * Reset the view for reuse: cancels any image load or in-flight ad load and
+     * drops the ad, listener and auto-refresh, keeping the inflated views.
+     */
+    public void unbind() {
+        cancelImageLoad();
+        resetState();
+        refreshScheduler.setInterval(0);
+        placementId = null;
+        adListener = null;
+        showLoading();
     }
 
     /**
@@ -138,37 +233,118 @@ public class BannerAdView extends FrameLayout {
 
         resetState();
         showLoading();
+        requestAd(placementId);
+    }
+
+    /**
+     * Reload this banner's placement every {@code intervalMs} of on-screen time.
+     * The countdown pauses while the banner is detached, hidden, less than half
+     * visible or the app is in the background, and each cycle is jittered.
+     * A banner whose load failed is retried on the same schedule.
+     * Intervals under 30 s are raised to 30 s; 0 turns refreshing off.
+     */
+    public void setAutoRefresh(long intervalMs) {
+        refreshScheduler.setInterval(intervalMs);
+    }
+
+    /**
+     * Called by the scheduler; false if there is no placement or a load is already in flight.
+     * A banner whose last load failed is retried too, so it recovers once the network or
+     * fill comes back; the negative cache keeps no-fill retries from reaching the backend.
+     */
+    boolean refreshFromScheduler() {
+        if (placementId == null || requestInFlight || !AdSDK.isInitialized()) return false;
+        Logger.d(TAG, (isLoaded ? "Refreshing" : "Retrying") + " banner for " + placementId);
+        requestAd(placementId);
+        return true;
+    }
+
+    /**
+     * Request an ad and swap it in once its image is decoded.
+     * Whatever is showing stays up meanwhile, and stays if the request fails.
+     */
+    private void requestAd(String placementId) {
+        this.placementId = placementId;
+        requestInFlight = true;
+        int generation = bindGeneration;
 
-        AdSDK.getInstance().getNetworkClient().loadAd(placementId, "banner", new NetworkClient.AdLoadCallback() {
+        AdSDK.getInstance().getNetworkClient().loadAd(placementId, "banner", adSize, new NetworkClient.AdLoadCallback() {
             @Override
             public void onAdLoaded(AdData adData) {
+                if (generation != bindGeneration) return;
                 if (adData == null || !adData.isValid() || !adData.hasImage()) {
                     Logger.w(TAG, "Invalid ad data received");
-                    showError();
+                    requestInFlight = false;
+                    if (currentAdData == null) showError();
                     notifyAdFailedToLoad("Invalid ad data");
                     return;
                 }
 
-                currentAdData = adData;
-                isLoaded = true;
-                impressionTracked = false;
-
-                populateAdContent();
-                showContent();
-                trackImpression();
-                notifyAdLoaded();
+                // Keep the loading state (or the previous ad) until the image is decoded
+                PredecodedImage.load(getContext(), adData.getImageUrl(),
+                        adSize.getWidthInPixels(getContext()), adSize.getHeightInPixels(getContext()),
+                        new PredecodedImage.Callback() {
+                            @Override
+                            public void onReady(PredecodedImage image) {
+                                if (generation != bindGeneration) {
+                                    image.clear();
+                                    return;
+                                }
+                                swapIn(adData, image);
+                            }
+
+                            @Override
+                            public void onFailed(String error) {
+                                if (generation != bindGeneration) return;
+                                Logger.w(TAG, "Image pre-decode failed: " + error);
+                                swapIn(adData, null);
+                            }
+                        });
             }
 
             @Override
             public void onAdFailedToLoad(String error) {
+                if (generation != bindGeneration) return;
                 Logger.e(TAG, "Ad failed to load: " + error);
-                showError();
+                requestInFlight = false;
+                if (currentAdData == null) showError();
                 notifyAdFailedToLoad(error);
             }
         });
     }
 
+    private void swapIn(AdData adData, PredecodedImage image) {
+        cancelImageLoad();
+        releaseImage();
+        requestInFlight = false;
+        currentAdData = adData;
+        predecodedImage = image;
+        displayAd();
+        notifyAdLoaded();
+    }
+
+    private void displayAd() {
+        isLoaded = true;
+        impressionTracked = false;
+        refreshScheduler.restartCycle();
+
+        populateAdContent();
+        showContent();
+        // The impression counts once the banner has been viewable, not when it loads
+        watchViewability();
+    }
+
+    private void watchViewability() {
+        if (currentAdData != null && !impressionTracked && isAttachedToWindow()) {
+            ViewabilityTracker.register(this, view -> trackImpression());
+        }
+    }
+
     private void resetState() {
+        ViewabilityTracker.unregister(this);
+        bindGeneration++;
+        requestInFlight = false;
+        releaseImage();
         currentAdData = null;
         isLoaded = false;
         impressionTracked = false;
@@ -180,16 +356,88 @@ public class BannerAdView extends FrameLayout {
             return;
         }
 
-        Glide.with(getContext())
-                .load(currentAdData.getImageUrl())
-                .diskCacheStrategy(DiskCacheStrategy.ALL)
-                .placeholder(R.drawable.ad_placeholder)
-                .error(R.drawable.ad_error)
-                .into(adImage);
+        long startedAt = SystemClock.uptimeMillis();
+        RenderMetrics metrics = AdSDK.getInstance().getRenderMetrics();
+
+        if (flatView != null) {
+            populateFlatContent(startedAt, metrics);
+            return;
+        }
+
+        if (predecodedImage != null && predecodedImage.applyTo(adImage)) {
+            metrics.trackFirstDraw(adImage, Constants.AD_TYPE_BANNER, startedAt);
+        } else {
+            // Bound without pre-decoding, or pre-decode failed: Glide loads into the view
+            Glide.with(getContext())
+                    .load(currentAdData.getImageUrl())
+                    .diskCacheStrategy(DiskCacheStrategy.ALL)
+                    .placeholder(R.drawable.ad_placeholder)
+                    .error(R.drawable.ad_error)
+                    .listener(metrics.trackWhenLoaded(adImage, Constants.AD_TYPE_BANNER, startedAt))
+                    .into(adImage);
+        }
 
         adLabel.setText("Ad");
     }
 
+    // The flat view draws a bitmap, so a creative that was not pre-decoded is decoded here
+    private void populateFlatContent(long startedAt, RenderMetrics metrics) {
+        flatView.setLabel("Ad");
+        if (predecodedImage != null && predecodedImage.isReady()) {
+            flatView.showContent(predecodedImage.getBitmap());
+            metrics.trackFirstDraw(flatView, Constants.AD_TYPE_BANNER, startedAt);
+            return;
+        }
+
+        releaseImage();
+        int generation = bindGeneration;
+        predecodedImage = PredecodedImage.load(getContext(), currentAdData.getImageUrl(),
+                adSize.getWidthInPixels(getContext()), adSize.getHeightInPixels(getContext()),
+                new PredecodedImage.Callback() {
+                    @Override
+                    public void onReady(PredecodedImage image) {
+                        if (generation != bindGeneration) {
+                            image.clear();
+                            return;
+                        }
+                        flatView.showContent(image.getBitmap());
+                        metrics.trackFirstDraw(flatView, Constants.AD_TYPE_BANNER, startedAt);
+                    }
+
+                    @Override
+                    public void onFailed(String error) {
+                        if (generation != bindGeneration) return;
+                        Logger.w(TAG, "Creative failed to load: " + error);
+                        flatView.showError();
+                    }
+                });
+    }
+
+    // A recycled view must not receive the image its previous ad was loading
+    private void cancelImageLoad() {
+        if (flatView != null) {
+            flatView.clearContent();
+            return;
+        }
+        try {
+            Glide.with(getContext()).clear(adImage);
+        } catch (IllegalArgumentException e) {
+            // Activity already destroyed; Glide cleared its requests with it
+        }
+        adImage.setImageDrawable(null);
+    }
+
+    private void releaseImage() {
+        if (predecodedImage == null) return;
+        if (flatView != null) {
+            flatView.clearContent();
+        } else {
+            adImage.setImageDrawable(null);
+        }
+        predecodedImage.clear();
+        predecodedImage = null;
+    }
+
     private void setupClickHandling() {
         OnClickListener clickListener = v -> handleAdClick();
 
@@ -216,18 +464,28 @@ public class BannerAdView extends FrameLayout {
 
     // UI helpers
     private void showLoading() {
+        if (flatView != null) {
+            flatView.showLoading();
+            return;
+        }
         if (loadingContainer != null) loadingContainer.setVisibility(VISIBLE);
         if (errorContainer != null) errorContainer.setVisibility(GONE);
         if (contentContainer != null) contentContainer.setVisibility(GONE);
     }
 
     private void showError() {
+        if (flatView != null) {
+            flatView.showError();
+            return;
+        }
         if (loadingContainer != null) loadingContainer.setVisibility(GONE);
         if (errorContainer != null) errorContainer.setVisibility(VISIBLE);
         if (contentContainer != null) contentContainer.setVisibility(GONE);
     }
 
     private void showContent() {
+        // The flat view switches to its content state once the bitmap is set
+        if (flatView != null) return;
         if (loadingContainer != null) loadingContainer.setVisibility(GONE);
         if (errorContainer != null) errorContainer.setVisibility(GONE);
         if (contentContainer != null) contentContainer.setVisibility(VISIBLE);
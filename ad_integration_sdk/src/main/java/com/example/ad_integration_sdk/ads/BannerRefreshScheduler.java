@@ -0,0 +1,120 @@
+package com.example.ad_integration_sdk.ads;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.example.ad_integration_sdk.ui.AdViewUtils;
+import com.example.ad_integration_sdk.utils.AppStateMonitor;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.Random;
+
+/**
+ * Refreshes one banner on an interval, counting only time the banner is viewable:
+ * attached, shown, in a visible window, at least half on screen, with the app in the
+ * foreground. The countdown pauses otherwise. Each cycle is jittered so banners that
+ * started together drift apart instead of refreshing in the same frame.
+ * Polls while attached and foregrounded; main thread only.
+ */
+class BannerRefreshScheduler implements AppStateMonitor.Listener {
+    private static final String TAG = "BannerRefreshScheduler";
+
+    static final long MIN_INTERVAL_MS = 30 * 1000;
+    static final float MIN_VISIBLE_FRACTION = 0.5f;
+    static final double JITTER_FRACTION = 0.15;
+    private static final long CHECK_INTERVAL_MS = 1000;
+
+    private final BannerAdView banner;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Rect visibleRect = new Rect();
+    private final Runnable tick = this::tick;
+
+    private long intervalMs = 0;
+    // This cycle's interval with jitter applied
+    private long targetMs = 0;
+    private long viewableMs = 0;
+    // -1 while the previous check found the banner not viewable
+    private long lastViewableAt = -1;
+    private boolean ticking = false;
+
+    BannerRefreshScheduler(BannerAdView banner) {
+        this.banner = banner;
+    }
+
+    /** Refresh every {@code intervalMs} of viewable time; 0 turns refreshing off. */
+    void setInterval(long intervalMs) {
+        if (intervalMs > 0 && intervalMs < MIN_INTERVAL_MS) {
+            Logger.w(TAG, "Refresh interval raised to the " + MIN_INTERVAL_MS + "ms minimum");
+            intervalMs = MIN_INTERVAL_MS;
+        }
+        this.intervalMs = Math.max(0, intervalMs);
+        restartCycle();
+        update();
+    }
+
+    long getInterval() {
+        return intervalMs;
+    }
+
+    /** Start counting a new cycle, e.g. because a new ad was just displayed. */
+    void restartCycle() {
+        viewableMs = 0;
+        lastViewableAt = -1;
+        long jitter = (long) ((random.nextDouble() * 2 - 1) * JITTER_FRACTION * intervalMs);
+        targetMs = intervalMs + jitter;
+    }
+
+    void onAttached() {
+        AppStateMonitor.addListener(this);
+        update();
+    }
+
+    void onDetached() {
+        AppStateMonitor.removeListener(this);
+        stopTicking();
+    }
+
+    @Override
+    public void onAppForeground() {
+        update();
+    }
+
+    @Override
+    public void onAppBackground() {
+        stopTicking();
+    }
+
+    private void update() {
+        boolean shouldTick = intervalMs > 0 && banner.isAttachedToWindow() && AppStateMonitor.isInForeground();
+        if (shouldTick && !ticking) {
+            ticking = true;
+            lastViewableAt = -1;
+            handler.postDelayed(tick, CHECK_INTERVAL_MS);
+        } else if (!shouldTick) {
+            stopTicking();
+        }
+    }
+
+    private void stopTicking() {
+        ticking = false;
+        handler.removeCallbacks(tick);
+    }
+
+    private void tick() {
+        long now = SystemClock.uptimeMillis();
+        if (AdViewUtils.getVisibleFraction(banner, visibleRect) >= MIN_VISIBLE_FRACTION) {
+            if (lastViewableAt >= 0) viewableMs += now - lastViewableAt;
+            lastViewableAt = now;
+        } else {
+            lastViewableAt = -1;
+        }
+
+        if (viewableMs >= targetMs && banner.refreshFromScheduler()) {
+            restartCycle();
+        }
+        handler.postDelayed(tick, CHECK_INTERVAL_MS);
+    }
+}
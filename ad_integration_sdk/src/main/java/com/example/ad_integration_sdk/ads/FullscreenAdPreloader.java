@@ -0,0 +1,202 @@
+package com.example.ad_integration_sdk.ads;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.ad_integration_sdk.network.AdInventoryCache;
+import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.utils.AppStateMonitor;
+import com.example.ad_integration_sdk.utils.Constants;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a target number of ready interstitial and rewarded ads per placement.
+ * Ready ads live in the NetworkClient inventory cache, so InterstitialAd.loadAd and
+ * RewardedAd.loadAd return instantly while stock lasts. Placements are refilled in
+ * the background whenever a load takes an ad from stock, whether or not it is ever
+ * shown, and as cached ads go stale, with at most a few refills in flight. The expiry
+ * wake-up is timed to the next ad going stale, and refilling pauses while the app is
+ * in the background.
+ *
+ * All methods must be called on the main thread.
+ */
+public class FullscreenAdPreloader implements AppStateMonitor.Listener, NetworkClient.InventoryListener {
+    private static final String TAG = "FullscreenAdPreloader";
+
+    public static final int DEFAULT_MAX_CONCURRENT_REFILLS = 2;
+    // Stale ads are replaced when a refill is reserved; the expiry check just wakes it up.
+    // A placement left short by a failed refill is retried at this interval.
+    private static final long RETRY_INTERVAL_MS = 60 * 1000;
+    private static final long MIN_CHECK_DELAY_MS = 1000;
+
+    private final NetworkClient networkClient;
+    private final Handler mainHandler;
+    private final Map<String, Target> targets = new LinkedHashMap<>();
+    private final Deque<Target> refillQueue = new ArrayDeque<>();
+    private final Runnable expiryCheck = this::checkExpiry;
+
+    private int maxConcurrentRefills = DEFAULT_MAX_CONCURRENT_REFILLS;
+    private int activeRefills = 0;
+    private boolean paused;
+
+    public FullscreenAdPreloader(NetworkClient networkClient) {
+        this.networkClient = networkClient;
+        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.paused = !AppStateMonitor.isInForeground();
+        networkClient.setInventoryListener(this);
+    }
+
+    /**
+     * Keep {@code count} ready ads for a placement; 0 stops preloading it.
+     * @param adType Constants.AD_TYPE_INTERSTITIAL or Constants.AD_TYPE_REWARDED
+     */
+    public void setTarget(String placementId, String adType, int count) {
+        if (!Constants.AD_TYPE_INTERSTITIAL.equals(adType) && !Constants.AD_TYPE_REWARDED.equals(adType)) {
+            throw new IllegalArgumentException("Only interstitial and rewarded ads can be preloaded");
+        }
+
+        String key = placementId + "|" + adType;
+        networkClient.getInventoryCache().setDepth(placementId, adType, Math.max(0, count));
+        if (count <= 0) {
+            Target removed = targets.remove(key);
+            if (removed != null) refillQueue.remove(removed);
+        } else {
+            Target target = targets.get(key);
+            if (target == null) {
+                target = new Target(placementId, adType);
+                targets.put(key, target);
+            }
+            target.count = count;
+            Logger.d(TAG, "Preloading " + count + " " + adType + " ads for " + placementId);
+            requestRefill(target);
+        }
+        scheduleExpiryCheck();
+    }
+
+    public void removeTarget(String placementId, String adType) {
+        setTarget(placementId, adType, 0);
+    }
+
+    /** Number of ready ads for a placement. */
+    public int getReadyCount(String placementId, String adType) {
+        return networkClient.getInventoryCache().getReadyCount(placementId, adType);
+    }
+
+    /** Upper bound on refill requests in flight across all placements. */
+    public void setMaxConcurrentRefills(int maxConcurrentRefills) {
+        this.maxConcurrentRefills = Math.max(1, maxConcurrentRefills);
+        drainQueue();
+    }
+
+    /**
+     * Top a placement back up after one of its ads was taken or shown.
+     * No-op for placements without a target.
+     */
+    public void refill(String placementId, String adType) {
+        Target target = targets.get(placementId + "|" + adType);
+        if (target != null) {
+            requestRefill(target);
+        }
+    }
+
+    /** A load took one of the stocked ads; top the placement back up. */
+    @Override
+    public void onInventoryTaken(String placementId, String adType) {
+        refill(placementId, adType);
+        scheduleExpiryCheck();
+    }
+
+    @Override
+    public void onAppForeground() {
+        paused = false;
+        // Anything that expired while in the background is replaced now
+        for (Target target : targets.values()) {
+            requestRefill(target);
+        }
+        scheduleExpiryCheck();
+    }
+
+    @Override
+    public void onAppBackground() {
+        paused = true;
+        mainHandler.removeCallbacks(expiryCheck);
+    }
+
+    private void requestRefill(Target target) {
+        if (!target.queued) {
+            target.queued = true;
+            refillQueue.addLast(target);
+        }
+        drainQueue();
+    }
+
+    private void drainQueue() {
+        while (!paused && activeRefills < maxConcurrentRefills && !refillQueue.isEmpty()) {
+            Target target = refillQueue.pollFirst();
+            target.queued = false;
+            int requested = networkClient.prefetch(target.placementId, target.adType, this::onRefillComplete);
+            if (requested > 0) {
+                activeRefills++;
+            }
+        }
+    }
+
+    private void onRefillComplete() {
+        activeRefills = Math.max(0, activeRefills - 1);
+        drainQueue();
+        scheduleExpiryCheck();
+    }
+
+    private void scheduleExpiryCheck() {
+        mainHandler.removeCallbacks(expiryCheck);
+        long delay = getExpiryCheckDelayMs();
+        if (!paused && delay >= 0) {
+            mainHandler.postDelayed(expiryCheck, delay);
+        }
+    }
+
+    /**
+     * Time until the next stocked ad goes stale, or the retry interval while a placement
+     * is short of its target; -1 when nothing is being preloaded.
+     */
+    long getExpiryCheckDelayMs() {
+        if (targets.isEmpty()) return -1;
+        AdInventoryCache cache = networkClient.getInventoryCache();
+        long now = System.currentTimeMillis();
+        long delay = Long.MAX_VALUE;
+        for (Target target : targets.values()) {
+            long staleAt = cache.getNextStaleAt(target.placementId, target.adType);
+            if (staleAt < 0 || cache.getReadyCount(target.placementId, target.adType) < target.count) {
+                delay = Math.min(delay, RETRY_INTERVAL_MS);
+            } else {
+                delay = Math.min(delay, staleAt - now);
+            }
+        }
+        return Math.max(MIN_CHECK_DELAY_MS, delay);
+    }
+
+    private void checkExpiry() {
+        for (Target target : targets.values()) {
+            requestRefill(target);
+        }
+        scheduleExpiryCheck();
+    }
+
+    /** A placement being kept stocked. */
+    private static class Target {
+        final String placementId;
+        final String adType;
+        int count;
+        boolean queued = false;
+
+        Target(String placementId, String adType) {
+            this.placementId = placementId;
+            this.adType = adType;
+        }
+    }
+}
@@ -3,11 +3,13 @@ package com.example.ad_integration_sdk.ads;
 import android.app.Activity;
 import android.app.Dialog;
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
@@ -17,6 +19,8 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.VideoView;
 
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.ad_integration_sdk.AdConfig;
@@ -25,7 +29,11 @@ import com.example.ad_integration_sdk.AdSDK;
 import com.example.ad_integration_sdk.R;
 import com.example.ad_integration_sdk.network.AdData;
 import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.ui.AdViewUtils;
 import com.example.ad_integration_sdk.ui.AnimationUtils;
+import com.example.ad_integration_sdk.ui.PredecodedImage;
+import com.example.ad_integration_sdk.ui.RenderMetrics;
+import com.example.ad_integration_sdk.ui.VideoRenderer;
 import com.example.ad_integration_sdk.utils.Constants;
 import com.example.ad_integration_sdk.utils.Logger;
 
@@ -67,6 +75,52 @@ public class InterstitialAd {
     private boolean isLoaded = false;
     private boolean isShowing = false;
     private boolean impressionTracked = false;
+    // Image decoded at load time, shown as-is by show()
+    private PredecodedImage predecodedImage;
+    private long showStartedAt = 0;
+    // Dialog built off the critical path while the ad loads; show() only attaches it
+    private boolean prepareOnLoad = true;
+    private boolean preparing = false;
+    private Dialog preparedDialog;
+    private View preparedView;
+    // Video playback; the renderer may be shared and outlives a show
+    private VideoRenderer videoRenderer;
+    private boolean ownsRenderer = false;
+    private boolean videoAttached = false;
+    private boolean preloadVideo = false;
+    private long videoStartedAt = 0;
+    // First frame shown in adImage until the video renders; owned by PosterFrameCache
+    private Bitmap posterFrame;
+    private boolean posterShown = false;
+    private ImageView.ScaleType imageScaleType;
+    private final VideoRenderer.Listener videoListener = new VideoRenderer.Listener() {
+        @Override
+        public void onStarted(int durationMs) {
+            if (loadingProgress != null) {
+                loadingProgress.setVisibility(View.GONE);
+            }
+        }
+
+        @Override
+        public void onFirstFrame() {
+            hidePoster();
+            if (videoStartedAt > 0) {
+                AdSDK.getInstance().getRenderMetrics().recordFirstVideoFrame(
+                        Constants.AD_TYPE_INTERSTITIAL, SystemClock.uptimeMillis() - videoStartedAt);
+                videoStartedAt = 0;
+            }
+        }
+
+        @Override
+        public void onCompletion() {
+            // Looping
+        }
+
+        @Override
+        public void onError(int what, int extra) {
+            onVideoError(what, extra);
+        }
+    };
 
     // Dynamic customization options
     private InterstitialAdCustomization customization;
@@ -127,6 +181,39 @@ public class InterstitialAd {
         this.customization = customization != null ? customization : new InterstitialAdCustomization();
     }
 
+    /**
+     * Inflate and customize the ad layout in the background while the ad loads,
+     * so show() does not inflate on the main thread. On by default.
+     */
+    public void setPrepareOnLoad(boolean enabled) {
+        this.prepareOnLoad = enabled;
+        if (!enabled) {
+            preparedDialog = null;
+            preparedView = null;
+        }
+    }
+
+    /**
+     * Prepare the video player as soon as a video ad loads, so show() starts playback
+     * without waiting for the decoder and first buffer. Off by default.
+     */
+    public void setPreloadVideo(boolean enabled) {
+        this.preloadVideo = enabled;
+    }
+
+    /**
+     * Play video through this renderer, e.g. one shared with the Activity's rewarded
+     * ads so the player and surface are reused across both. The caller releases a
+     * renderer it passes in. By default the ad creates its own.
+     */
+    public void setVideoRenderer(VideoRenderer renderer) {
+        if (ownsRenderer && videoRenderer != null && videoRenderer != renderer) {
+            videoRenderer.release();
+        }
+        this.videoRenderer = renderer;
+        this.ownsRenderer = false;
+    }
+
     /**
      * Set ad listener for events
      */
@@ -162,6 +249,7 @@ public class InterstitialAd {
         this.impressionTracked = false;
 
         Logger.d(TAG, "Loading interstitial ad for placement: " + request.getPlacementId());
+        prepareDialog();
 
         // Load ad from network
         AdSDK.getInstance().getNetworkClient().loadAd(
@@ -203,10 +291,10 @@ public class InterstitialAd {
         }
 
         try {
+            showStartedAt = SystemClock.uptimeMillis();
             createAndShowDialog();
             isShowing = true;
             notifyAdShown();
-
         } catch (Exception e) {
             Logger.e(TAG, "Failed to show interstitial ad", e);
             notifyAdFailedToShow(e.getMessage());
@@ -228,9 +316,15 @@ public class InterstitialAd {
             adDialog.dismiss();
         }
 
-        if (adVideo != null) {
-            adVideo.stopPlayback();
+        stopVideo();
+        if (ownsRenderer && videoRenderer != null) {
+            videoRenderer.release();
+            videoRenderer = null;
+            ownsRenderer = false;
         }
+        releaseImage();
+        preparedDialog = null;
+        preparedView = null;
 
         currentAdData = null;
         isLoaded = false;
@@ -244,59 +338,95 @@ public class InterstitialAd {
             return;
         }
 
+        releaseImage();
         this.currentAdData = adData;
+
+        String imageUrl = adData.hasVideo() ? null
+                : adData.hasImage() ? adData.getImageUrl() : customization.fallbackImageUrl;
+        if (imageUrl == null) {
+            if (adData.hasVideo()) {
+                activity.runOnUiThread(() -> {
+                    loadPoster(adData);
+                    if (preloadVideo) preloadVideo(adData);
+                });
+            }
+            markLoaded();
+            return;
+        }
+
+        // Fetch and decode at screen size now so show() does not wait on Glide
+        predecodedImage = PredecodedImage.load(activity, resolveImageUri(imageUrl),
+                AdViewUtils.getScreenWidth(activity), AdViewUtils.getScreenHeight(activity),
+                new PredecodedImage.Callback() {
+                    @Override
+                    public void onReady(PredecodedImage image) {
+                        if (currentAdData != adData) return;
+                        markLoaded();
+                    }
+
+                    @Override
+                    public void onFailed(String error) {
+                        if (currentAdData != adData) return;
+                        // Still showable: show() falls back to loading the image itself
+                        Logger.w(TAG, "Image pre-decode failed: " + error);
+                        markLoaded();
+                    }
+                });
+    }
+
+    private void markLoaded() {
         this.isLoaded = true;
 
         Logger.d(TAG, "Interstitial ad loaded successfully");
         notifyAdLoaded();
     }
 
+    private void releaseImage() {
+        if (predecodedImage == null) return;
+        if (adImage != null) {
+            adImage.setImageDrawable(null);
+        }
+        predecodedImage.clear();
+        predecodedImage = null;
+    }
+
     private void handleAdFailedToLoad(String error) {
         this.isLoaded = false;
         this.currentAdData = null;
+        releaseImage();
 
         Logger.e(TAG, "Failed to load interstitial ad: " + error);
         notifyAdFailedToLoad(error);
     }
 
     private void createAndShowDialog() {
-        // Create full-screen dialog
-        adDialog = new Dialog(activity, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
-        adDialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
-        adDialog.setCancelable(false);
-        adDialog.setCanceledOnTouchOutside(false);
+        View dialogView;
+        if (preparedDialog != null) {
+            // Inflated and bound while the ad loaded
+            adDialog = preparedDialog;
+            dialogView = preparedView;
+        } else {
+            // Inflate layout
+            dialogView = activity.getLayoutInflater().inflate(
+                    R.layout.interstitial_ad_layout, null);
+            adDialog = createDialog(dialogView);
 
-        // Set window flags
-        Window window = adDialog.getWindow();
-        if (window != null) {
-            window.setLayout(
-                    WindowManager.LayoutParams.MATCH_PARENT,
-                    WindowManager.LayoutParams.MATCH_PARENT
-            );
-            window.setBackgroundDrawable(new ColorDrawable(customization.backgroundColor));
-            window.setFlags(
-                    WindowManager.LayoutParams.FLAG_FULLSCREEN,
-                    WindowManager.LayoutParams.FLAG_FULLSCREEN
-            );
+            // Initialize views
+            initializeDialogViews(dialogView);
         }
+        preparedDialog = null;
+        preparedView = null;
 
-        // Inflate layout
-        View dialogView = activity.getLayoutInflater().inflate(
-                R.layout.interstitial_ad_layout, null);
-        adDialog.setContentView(dialogView);
-
-        // Initialize views
-        initializeDialogViews(dialogView);
-
-        // Apply customization
+        // Apply customization at show time, so changes made after loadAd() take effect
+        applyWindowCustomization(adDialog);
         applyCustomization();
 
         // Populate content
         populateAdContent();
+        showStartedAt = 0;
 
         // Setup handlers
         setupClickHandlers();
-        setupVideoHandlers();
 
         // Show with animation
         adDialog.show();
@@ -308,6 +438,61 @@ public class InterstitialAd {
         trackImpression();
     }
 
+    private Dialog createDialog(View dialogView) {
+        // Create full-screen dialog
+        Dialog dialog = new Dialog(activity, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
+        dialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
+        dialog.setCancelable(false);
+        dialog.setCanceledOnTouchOutside(false);
+
+        // Set window flags
+        Window window = dialog.getWindow();
+        if (window != null) {
+            window.setLayout(
+                    WindowManager.LayoutParams.MATCH_PARENT,
+                    WindowManager.LayoutParams.MATCH_PARENT
+            );
+            window.setFlags(
+                    WindowManager.LayoutParams.FLAG_FULLSCREEN,
+                    WindowManager.LayoutParams.FLAG_FULLSCREEN
+            );
+        }
+
+        dialog.setContentView(dialogView);
+        return dialog;
+    }
+
+    private void applyWindowCustomization(Dialog dialog) {
+        Window window = dialog.getWindow();
+        if (window != null) {
+            window.setBackgroundDrawable(new ColorDrawable(customization.backgroundColor));
+        }
+    }
+
+    /**
+     * Inflate the layout on a background thread, then build the dialog on the main
+     * thread once it arrives. The layout does not depend on the ad or the customization
+     * (applied at show time), so a prepared dialog is kept across loads until shown.
+     */
+    private void prepareDialog() {
+        if (!prepareOnLoad || preparing || preparedDialog != null) return;
+
+        preparing = true;
+        new AsyncLayoutInflater(activity).inflate(R.layout.interstitial_ad_layout, null, (view, resid, parent) -> {
+            preparing = false;
+            // The view fields belong to the showing dialog until it is dismissed
+            if (!prepareOnLoad || isShowing || activity.isFinishing()) return;
+            try {
+                Dialog dialog = createDialog(view);
+                initializeDialogViews(view);
+                preparedDialog = dialog;
+                preparedView = view;
+            } catch (Exception e) {
+                Logger.w(TAG, "Failed to prepare interstitial dialog, show() will build it: " + e.getMessage());
+            }
+        });
+    }
+
     private void initializeDialogViews(View dialogView) {
         topBar = dialogView.findViewById(R.id.top_bar);
         mainContent = dialogView.findViewById(R.id.main_content);
@@ -441,36 +626,47 @@ public class InterstitialAd {
 
 //    static image remove this  and uncomment upper part
     private void setupImageContent(String imageUrl) {
+        hidePoster();
+        stopVideo();
         adVideo.setVisibility(View.GONE);
         adImage.setVisibility(View.VISIBLE);
 
-        String uriToUse = imageUrl;
-        if (STATIC_IMAGE_TESTING) {
-            uriToUse = getStaticImageUri();
+        // Only the first image of a show counts towards show-to-pixels, not video fallbacks
+        long startedAt = showStartedAt;
+        RenderMetrics metrics = AdSDK.getInstance().getRenderMetrics();
+
+        if (predecodedImage != null && predecodedImage.applyTo(adImage)) {
+            if (startedAt > 0) metrics.trackFirstDraw(adImage, Constants.AD_TYPE_INTERSTITIAL, startedAt);
+            return;
         }
 
         Glide.with(activity)
-                .load(uriToUse)
+                .load(resolveImageUri(imageUrl))
                 .diskCacheStrategy(DiskCacheStrategy.ALL)
                 .placeholder(R.drawable.ad_placeholder)
                 .error(R.drawable.ad_error)
+                .listener(startedAt > 0 ? metrics.trackWhenLoaded(adImage, Constants.AD_TYPE_INTERSTITIAL, startedAt) : null)
                 .into(adImage);
     }
 
+    private String resolveImageUri(String imageUrl) {
+        return STATIC_IMAGE_TESTING ? getStaticImageUri() : imageUrl;
+    }
+
 
     private void setupVideoContent() {
         adImage.setVisibility(View.GONE);
-        adVideo.setVisibility(View.VISIBLE);
 
         try {
-            adVideo.setVideoURI(Uri.parse(currentAdData.getVideoUrl()));
-            adVideo.setOnPreparedListener(mediaPlayer -> {
-                mediaPlayer.setLooping(true);
-                adVideo.start();
-                if (loadingProgress != null) {
-                    loadingProgress.setVisibility(View.GONE);
-                }
-            });
+            videoStartedAt = showStartedAt;
+            VideoRenderer renderer = renderer();
+            renderer.setListener(videoListener);
+            renderer.attach(adVideo);
+            videoAttached = true;
+            showPoster();
+            // A no-op when the video was prepared at load time
+            renderer.prepare(resolveVideoUri(currentAdData.getVideoUrl()), true);
+            renderer.start();
         } catch (Exception e) {
             Logger.e(TAG, "Failed to setup video", e);
             // Fallback to image
@@ -507,23 +703,85 @@ public class InterstitialAd {
         }
     }
 
-    private void setupVideoHandlers() {
-        if (adVideo != null) {
-            adVideo.setOnErrorListener((mp, what, extra) -> {
-                Logger.e(TAG, "Video error: " + what + ", " + extra);
+    // Plays the creative cached at load time; streams if the download has not finished
+    private String resolveVideoUri(String videoUrl) {
+        return AdSDK.getInstance().getNetworkClient().resolveVideoUrl(videoUrl);
+    }
 
-                // Fallback to image on video error
-                if (currentAdData != null && currentAdData.hasImage()) {
-                    setupImageContent(currentAdData.getImageUrl());
-                } else if (customization.fallbackImageUrl != null) {
-                    setupImageContent(customization.fallbackImageUrl);
-                }
+    private void preloadVideo(AdData adData) {
+        if (isShowing || currentAdData != adData) return;
+        try {
+            VideoRenderer renderer = renderer();
+            // A shared renderer may be playing another ad's video
+            if (renderer.isAttached()) return;
+            renderer.prepare(resolveVideoUri(adData.getVideoUrl()), true);
+            Logger.d(TAG, "Preparing interstitial video at load time");
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to preload video: " + e.getMessage());
+        }
+    }
 
-                if (loadingProgress != null) {
-                    loadingProgress.setVisibility(View.GONE);
-                }
-                return true;
-            });
+    private void loadPoster(AdData adData) {
+        posterFrame = null;
+        String videoUrl = adData.getVideoUrl();
+        AdSDK.getInstance().getPosterFrames().load(videoUrl, resolveVideoUri(videoUrl),
+                AdViewUtils.getScreenWidth(activity) / 2, AdViewUtils.getScreenHeight(activity) / 2,
+                poster -> {
+                    if (currentAdData != adData || poster == null) return;
+                    posterFrame = poster;
+                    // Arrived after show() but before the video rendered
+                    if (videoAttached && videoStartedAt > 0) showPoster();
+                });
+    }
+
+    // Fit like the video, so the first frame replaces the poster in place
+    private void showPoster() {
+        if (posterFrame == null || posterShown) return;
+        posterShown = true;
+        imageScaleType = adImage.getScaleType();
+        adImage.setScaleType(ImageView.ScaleType.FIT_CENTER);
+        adImage.setImageBitmap(posterFrame);
+        adImage.setVisibility(View.VISIBLE);
+        // The layout puts the video above the image; a VideoView surface would hide it
+        adImage.bringToFront();
+    }
+
+    private void hidePoster() {
+        if (!posterShown) return;
+        posterShown = false;
+        adImage.setVisibility(View.GONE);
+        adImage.setImageDrawable(null);
+        adImage.setScaleType(imageScaleType);
+    }
+
+    private VideoRenderer renderer() {
+        if (videoRenderer == null) {
+            videoRenderer = VideoRenderer.create(activity);
+            ownsRenderer = true;
+        }
+        return videoRenderer;
+    }
+
+    // Stop this show's playback; the renderer keeps its player and surface
+    private void stopVideo() {
+        if (videoAttached) {
+            videoAttached = false;
+            videoRenderer.stop();
+        }
+    }
+
+    private void onVideoError(int what, int extra) {
+        Logger.e(TAG, "Video error: " + what + ", " + extra);
+
+        // Fallback to image on video error
+        if (currentAdData != null && currentAdData.hasImage()) {
+            setupImageContent(currentAdData.getImageUrl());
+        } else if (customization.fallbackImageUrl != null) {
+            setupImageContent(customization.fallbackImageUrl);
+        }
+
+        if (loadingProgress != null) {
+            loadingProgress.setVisibility(View.GONE);
         }
     }
 
@@ -569,9 +827,12 @@ public class InterstitialAd {
         isShowing = false;
         isLoaded = false;
 
-        if (adVideo != null) {
-            adVideo.stopPlayback();
-        }
+        stopVideo();
+        hidePoster();
+        posterFrame = null;
+        videoStartedAt = 0;
+        // The shown ad is spent; hand its bitmap back to Glide
+        releaseImage();
 
         notifyAdDismissed();
     }
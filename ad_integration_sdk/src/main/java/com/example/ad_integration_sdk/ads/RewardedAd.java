@@ -3,13 +3,14 @@
     import android.app.Activity;
     import android.app.Dialog;
     import android.content.Intent;
+    import android.graphics.Bitmap;
     import android.graphics.Color;
     import android.graphics.drawable.ColorDrawable;
-    import android.media.MediaPlayer;
     import android.net.Uri;
-    import android.os.Handler;
-    import android.os.Looper;
+    import android.os.SystemClock;
+    import android.view.Choreographer;
     import android.view.View;
+    import android.view.ViewTreeObserver;
     import android.view.Window;
     import android.view.WindowManager;
     import android.widget.ImageView;
@@ -18,6 +19,8 @@
     import android.widget.TextView;
     import android.widget.VideoView;
 
+    import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+
     import com.bumptech.glide.Glide;
     import com.bumptech.glide.load.engine.DiskCacheStrategy;
     import com.example.ad_integration_sdk.AdConfig;
@@ -26,7 +29,9 @@
     import com.example.ad_integration_sdk.R;
     import com.example.ad_integration_sdk.network.AdData;
     import com.example.ad_integration_sdk.network.NetworkClient;
+    import com.example.ad_integration_sdk.ui.AdViewUtils;
     import com.example.ad_integration_sdk.ui.AnimationUtils;
+    import com.example.ad_integration_sdk.ui.VideoRenderer;
     import com.example.ad_integration_sdk.utils.Constants;
     import com.example.ad_integration_sdk.utils.Logger;
 
@@ -69,13 +74,62 @@
         private boolean videoStarted = false;
         private boolean videoCompleted = false;
         private boolean rewardEarned = false;
-
-        // Video tracking
-        private Handler progressHandler;
-        private Runnable progressRunnable;
+        // Dialog built off the critical path while the ad loads; show() only attaches it
+        private boolean prepareOnLoad = true;
+        private boolean preparing = false;
+        private Dialog preparedDialog;
+        private View preparedView;
+
+        // Video tracking, one update per frame while the dialog window has focus
+        private final Choreographer.FrameCallback progressFrame = frameTimeNanos -> onProgressFrame();
+        private final ViewTreeObserver.OnWindowFocusChangeListener focusListener = this::onDialogFocusChanged;
+        private boolean progressTracking = false;
         private int videoDuration = 0;
         private int videoCurrentPosition = 0;
-        private MediaPlayer mediaPlayer;
+        // Playback position at which the close button appears
+        private int closeAtPosition = 0;
+        // Timer labels indexed by remaining seconds, built once per video
+        private String[] timerLabels = new String[0];
+        private int shownPercent = -1;
+        private int shownSeconds = -1;
+
+        // Video playback; the renderer may be shared and outlives a show
+        private VideoRenderer videoRenderer;
+        private boolean ownsRenderer = false;
+        private boolean videoAttached = false;
+        private boolean preloadVideo = false;
+        private long showStartedAt = 0;
+        // First frame shown in adImage until the video renders; owned by PosterFrameCache
+        private Bitmap posterFrame;
+        private boolean posterShown = false;
+        private ImageView.ScaleType imageScaleType;
+        private final VideoRenderer.Listener videoListener = new VideoRenderer.Listener() {
+            @Override
+            public void onStarted(int durationMs) {
+                onVideoStarted(durationMs);
+            }
+
+            @Override
+            public void onFirstFrame() {
+                hidePoster();
+                if (showStartedAt > 0) {
+                    AdSDK.getInstance().getRenderMetrics().recordFirstVideoFrame(
+                            Constants.AD_TYPE_REWARDED, SystemClock.uptimeMillis() - showStartedAt);
+                    showStartedAt = 0;
+                }
+            }
+
+            @Override
+            public void onCompletion() {
+                videoCompleted = true;
+                onVideoCompleted();
+            }
+
+            @Override
+            public void onError(int what, int extra) {
+                onVideoError(what, extra);
+            }
+        };
 
         // Dynamic customization
         private RewardedAdCustomization customization;
@@ -148,7 +202,6 @@
          */
         public RewardedAd(Activity activity) {
             this.activity = activity;
-            this.progressHandler = new Handler(Looper.getMainLooper());
             this.customization = new RewardedAdCustomization();
         }
 
@@ -159,6 +212,40 @@
             this.customization = customization != null ? customization : new RewardedAdCustomization();
         }
 
+        /**
+         * Inflate and customize the ad layout in the background while the ad loads,
+         * so show() does not inflate on the main thread. On by default.
+         */
+        public void setPrepareOnLoad(boolean enabled) {
+            this.prepareOnLoad = enabled;
+            if (!enabled) {
+                preparedDialog = null;
+                preparedView = null;
+            }
+        }
+
+        /**
+         * Prepare the video player as soon as the ad loads, so show() starts playback
+         * without waiting for the decoder and first buffer. The prepared player holds a
+         * decoder until the ad is shown or destroyed. Off by default.
+         */
+        public void setPreloadVideo(boolean enabled) {
+            this.preloadVideo = enabled;
+        }
+
+        /**
+         * Play video through this renderer, e.g. one shared with the Activity's
+         * interstitials so the player and surface are reused across both. The caller
+         * releases a renderer it passes in. By default the ad creates its own.
+         */
+        public void setVideoRenderer(VideoRenderer renderer) {
+            if (ownsRenderer && videoRenderer != null && videoRenderer != renderer) {
+                videoRenderer.release();
+            }
+            this.videoRenderer = renderer;
+            this.ownsRenderer = false;
+        }
+
         /**
          * Set ad listener
          */
@@ -196,6 +283,7 @@
             this.rewardEarned = false;
 
             Logger.d(TAG, "Loading rewarded ad for placement: " + request.getPlacementId());
+            prepareDialog();
 
             AdSDK.getInstance().getNetworkClient().loadAd(
                     request.getPlacementId(),
@@ -236,10 +324,10 @@
             }
 
             try {
+                showStartedAt = SystemClock.uptimeMillis();
                 createAndShowDialog();
                 isShowing = true;
                 notifyAdShown();
-
             } catch (Exception e) {
                 Logger.e(TAG, "Failed to show rewarded ad", e);
                 notifyAdFailedToShow(e.getMessage());
@@ -263,14 +351,14 @@
                 adDialog.dismiss();
             }
 
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-                mediaPlayer = null;
-            }
-
-            if (adVideo != null) {
-                adVideo.stopPlayback();
+            stopVideo();
+            if (ownsRenderer && videoRenderer != null) {
+                videoRenderer.release();
+                videoRenderer = null;
+                ownsRenderer = false;
             }
+            preparedDialog = null;
+            preparedView = null;
 
             currentAdData = null;
             isLoaded = false;
@@ -291,6 +379,10 @@
 
             this.currentAdData = adData;
             this.isLoaded = true;
+            activity.runOnUiThread(() -> {
+                loadPoster(adData);
+                if (preloadVideo) preloadVideo(adData);
+            });
 
             Logger.d(TAG, "Rewarded ad loaded successfully");
             notifyAdLoaded();
@@ -305,36 +397,25 @@
         }
 
         private void createAndShowDialog() {
-            // Create full-screen dialog
-            adDialog = new Dialog(activity, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
-            adDialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
-            adDialog.setCancelable(false);
-            adDialog.setCanceledOnTouchOutside(false);
-
-            Window window = adDialog.getWindow();
-            if (window != null) {
-                window.setLayout(
-                        WindowManager.LayoutParams.MATCH_PARENT,
-                        WindowManager.LayoutParams.MATCH_PARENT
-                );
-                window.setBackgroundDrawable(new ColorDrawable(customization.backgroundColor));
+            View dialogView;
+            if (preparedDialog != null) {
+                // Inflated and bound while the ad loaded
+                adDialog = preparedDialog;
+                dialogView = preparedView;
+            } else {
+                // Inflate layout
+                dialogView = activity.getLayoutInflater().inflate(
+                        R.layout.rewarded_ad_layout, null);
+                adDialog = createDialog(dialogView);
 
-                int flags = WindowManager.LayoutParams.FLAG_FULLSCREEN;
-                if (customization.keepScreenOn) {
-                    flags |= WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON;
-                }
-                window.setFlags(flags, flags);
+                // Initialize views
+                initializeDialogViews(dialogView);
             }
+            preparedDialog = null;
+            preparedView = null;
 
-            // Inflate layout
-            View dialogView = activity.getLayoutInflater().inflate(
-                    R.layout.rewarded_ad_layout, null);
-            adDialog.setContentView(dialogView);
-
-            // Initialize views
-            initializeDialogViews(dialogView);
-
-            // Apply customization
+            // Apply customization at show time, so changes made after loadAd() take effect
+            applyWindowCustomization(adDialog);
             applyCustomization();
 
             // Populate content
@@ -342,9 +423,11 @@
 
             // Setup handlers
             setupClickHandlers();
-            setupVideoHandlers();
 
             // Show dialog
+            if (adDialog.getWindow() != null) {
+                adDialog.getWindow().getDecorView().getViewTreeObserver().addOnWindowFocusChangeListener(focusListener);
+            }
             adDialog.show();
 
             if (customization.enableFadeAnimation) {
@@ -355,6 +438,64 @@
             trackImpression();
         }
 
+        private Dialog createDialog(View dialogView) {
+            // Create full-screen dialog
+            Dialog dialog = new Dialog(activity, android.R.style.Theme_Black_NoTitleBar_Fullscreen);
+            dialog.requestWindowFeature(Window.FEATURE_NO_TITLE);
+            dialog.setCancelable(false);
+            dialog.setCanceledOnTouchOutside(false);
+
+            Window window = dialog.getWindow();
+            if (window != null) {
+                window.setLayout(
+                        WindowManager.LayoutParams.MATCH_PARENT,
+                        WindowManager.LayoutParams.MATCH_PARENT
+                );
+                window.setFlags(
+                        WindowManager.LayoutParams.FLAG_FULLSCREEN,
+                        WindowManager.LayoutParams.FLAG_FULLSCREEN
+                );
+            }
+
+            dialog.setContentView(dialogView);
+            return dialog;
+        }
+
+        private void applyWindowCustomization(Dialog dialog) {
+            Window window = dialog.getWindow();
+            if (window == null) return;
+            window.setBackgroundDrawable(new ColorDrawable(customization.backgroundColor));
+            if (customization.keepScreenOn) {
+                window.addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+            } else {
+                window.clearFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+            }
+        }
+
+        /**
+         * Inflate the layout on a background thread, then build the dialog on the main
+         * thread once it arrives. Customization is applied at show time, so the prepared
+         * dialog is kept across loads until shown.
+         */
+        private void prepareDialog() {
+            if (!prepareOnLoad || preparing || preparedDialog != null) return;
+
+            preparing = true;
+            new AsyncLayoutInflater(activity).inflate(R.layout.rewarded_ad_layout, null, (view, resid, parent) -> {
+                preparing = false;
+                // The view fields belong to the showing dialog until it is dismissed
+                if (!prepareOnLoad || isShowing || activity.isFinishing()) return;
+                try {
+                    Dialog dialog = createDialog(view);
+                    initializeDialogViews(view);
+                    preparedDialog = dialog;
+                    preparedView = view;
+                } catch (Exception e) {
+                    Logger.w(TAG, "Failed to prepare rewarded dialog, show() will build it: " + e.getMessage());
+                }
+            });
+        }
+
         private void initializeDialogViews(View dialogView) {
             adVideo = dialogView.findViewById(R.id.ad_video);
             adImage = dialogView.findViewById(R.id.ad_image);
@@ -546,21 +687,18 @@
 //        }
 
 
-        // STATIC VIDEO TESTING: Remove this block when integrating real ad assets
         private void setupVideoContent(String videoUrl) {
             adImage.setVisibility(View.GONE);
-            adVideo.setVisibility(View.VISIBLE);
 
             try {
-                String uriToUse = videoUrl;
-                if (STATIC_VIDEO_TESTING) {
-                    uriToUse = "android.resource://" + activity.getPackageName() + "/" + R.raw.sample_reward;
-                }
-                adVideo.setVideoURI(Uri.parse(uriToUse));
-
-                adVideo.setVideoURI(Uri.parse(uriToUse));
-                adVideo.requestFocus();
-                adVideo.setMediaController(null);
+                VideoRenderer renderer = renderer();
+                renderer.setListener(videoListener);
+                renderer.attach(adVideo);
+                videoAttached = true;
+                showPoster();
+                // A no-op when the video was prepared at load time
+                renderer.prepare(resolvePlaybackUri(videoUrl), false);
+                renderer.start();
             } catch (Exception e) {
                 Logger.e(TAG, "Failed to setup video", e);
                 if (currentAdData != null && currentAdData.hasImage()) {
@@ -571,7 +709,88 @@
             }
         }
 
+        // STATIC VIDEO TESTING: Remove the override when integrating real ad assets
+        private String resolvePlaybackUri(String videoUrl) {
+            if (STATIC_VIDEO_TESTING) {
+                return "android.resource://" + activity.getPackageName() + "/" + R.raw.sample_reward;
+            }
+            // Plays the creative cached at load time; streams if the download has not finished
+            return AdSDK.getInstance().getNetworkClient().resolveVideoUrl(videoUrl);
+        }
+
+        // The video populateAdContent() will play, or null if it shows an image
+        private String videoUrlFor(AdData adData) {
+            if (adData.hasVideo()) return adData.getVideoUrl();
+            if (!adData.hasImage()) return customization.fallbackVideoUrl;
+            return null;
+        }
+
+        private void preloadVideo(AdData adData) {
+            String videoUrl = videoUrlFor(adData);
+            if (isShowing || videoUrl == null) return;
+            try {
+                VideoRenderer renderer = renderer();
+                // A shared renderer may be playing another ad's video
+                if (renderer.isAttached()) return;
+                renderer.prepare(resolvePlaybackUri(videoUrl), false);
+                Logger.d(TAG, "Preparing rewarded video at load time");
+            } catch (Exception e) {
+                Logger.w(TAG, "Failed to preload video: " + e.getMessage());
+            }
+        }
+
+        private void loadPoster(AdData adData) {
+            String videoUrl = videoUrlFor(adData);
+            if (videoUrl == null) return;
+            posterFrame = null;
+            AdSDK.getInstance().getPosterFrames().load(videoUrl, resolvePlaybackUri(videoUrl),
+                    AdViewUtils.getScreenWidth(activity) / 2, AdViewUtils.getScreenHeight(activity) / 2,
+                    poster -> {
+                        if (currentAdData != adData || poster == null) return;
+                        posterFrame = poster;
+                        // Arrived after show() but before the video rendered
+                        if (videoAttached && !videoStarted) showPoster();
+                    });
+        }
+
+        // Fit like the video, so the first frame replaces the poster in place
+        private void showPoster() {
+            if (posterFrame == null || posterShown) return;
+            posterShown = true;
+            imageScaleType = adImage.getScaleType();
+            adImage.setScaleType(ImageView.ScaleType.FIT_CENTER);
+            adImage.setImageBitmap(posterFrame);
+            adImage.setVisibility(View.VISIBLE);
+            // Unlike the interstitial layout, this one already stacks the image above the video
+        }
+
+        private void hidePoster() {
+            if (!posterShown) return;
+            posterShown = false;
+            adImage.setVisibility(View.GONE);
+            adImage.setImageDrawable(null);
+            adImage.setScaleType(imageScaleType);
+        }
+
+        private VideoRenderer renderer() {
+            if (videoRenderer == null) {
+                videoRenderer = VideoRenderer.create(activity);
+                ownsRenderer = true;
+            }
+            return videoRenderer;
+        }
+
+        // Stop this show's playback; the renderer keeps its player and surface
+        private void stopVideo() {
+            if (videoAttached) {
+                videoAttached = false;
+                videoRenderer.stop();
+            }
+        }
+
         private void setupImageContent(String imageUrl) {
+            hidePoster();
+            stopVideo();
             adVideo.setVisibility(View.GONE);
             adImage.setVisibility(View.VISIBLE);
 
@@ -598,69 +817,90 @@
             });
         }
 
-        private void setupVideoHandlers() {
-            adVideo.setOnPreparedListener(mp -> {
-                mediaPlayer = mp;
-                videoDuration = mp.getDuration();
-                progressBar.setMax(100);
+        private void onVideoStarted(int durationMs) {
+            videoDuration = durationMs;
+            progressBar.setMax(100);
+            prepareProgressLabels();
 
-                mp.start();
-                videoStarted = true;
-                startProgressTracking();
-                notifyVideoStarted();
+            videoStarted = true;
+            startProgressTracking();
+            notifyVideoStarted();
 
-                Logger.d(TAG, "Video started, duration: " + videoDuration + "ms");
-            });
+            Logger.d(TAG, "Video started, duration: " + videoDuration + "ms");
+        }
 
-            adVideo.setOnCompletionListener(mp -> {
-                videoCompleted = true;
-                onVideoCompleted();
-            });
+        private void onVideoError(int what, int extra) {
+            Logger.e(TAG, "Video error: " + what + ", " + extra);
+            if (currentAdData != null && currentAdData.hasImage()) {
+                setupImageContent(currentAdData.getImageUrl());
+            } else if (customization.fallbackImageUrl != null) {
+                setupImageContent(customization.fallbackImageUrl);
+            }
+        }
 
-            adVideo.setOnErrorListener((mp, what, extra) -> {
-                Logger.e(TAG, "Video error: " + what + ", " + extra);
-                if (currentAdData != null && currentAdData.hasImage()) {
-                    setupImageContent(currentAdData.getImageUrl());
-                } else if (customization.fallbackImageUrl != null) {
-                    setupImageContent(customization.fallbackImageUrl);
-                }
-                return true;
-            });
+        private void prepareProgressLabels() {
+            closeAtPosition = (int) (customization.closeThreshold * videoDuration);
+            int maxSeconds = Math.max(0, videoDuration / 1000);
+            timerLabels = new String[maxSeconds + 1];
+            timerLabels[0] = "Done";
+            for (int i = 1; i <= maxSeconds; i++) {
+                timerLabels[i] = i + "s";
+            }
+            shownPercent = -1;
+            shownSeconds = -1;
         }
 
         private void startProgressTracking() {
-            progressRunnable = new Runnable() {
-                @Override
-                public void run() {
-                    if (adVideo != null && videoStarted && !videoCompleted) {
-                        videoCurrentPosition = adVideo.getCurrentPosition();
-                        updateProgress();
-                        progressHandler.postDelayed(this, 100);
-                    }
-                }
-            };
-            progressHandler.post(progressRunnable);
+            if (progressTracking) return;
+            progressTracking = true;
+            Choreographer.getInstance().postFrameCallback(progressFrame);
         }
 
         private void stopProgressTracking() {
-            if (progressHandler != null && progressRunnable != null) {
-                progressHandler.removeCallbacks(progressRunnable);
+            if (!progressTracking) return;
+            progressTracking = false;
+            Choreographer.getInstance().removeFrameCallback(progressFrame);
+        }
+
+        private void onDialogFocusChanged(boolean hasFocus) {
+            // Nothing on screen changes for the user while another window is on top
+            if (!hasFocus) {
+                stopProgressTracking();
+            } else if (videoStarted && !videoCompleted) {
+                startProgressTracking();
             }
         }
 
+        private void onProgressFrame() {
+            if (!progressTracking) return;
+            if (!videoAttached || !videoStarted || videoCompleted) {
+                progressTracking = false;
+                return;
+            }
+            videoCurrentPosition = videoRenderer.getCurrentPosition();
+            updateProgress();
+            Choreographer.getInstance().postFrameCallback(progressFrame);
+        }
+
+        // Integer math and cached labels only: runs every frame
         private void updateProgress() {
             if (videoDuration <= 0) return;
 
-            double progress = (double) videoCurrentPosition / videoDuration;
-            int progressPercent = (int) (progress * 100);
-            progressBar.setProgress(progressPercent);
+            int position = Math.min(videoCurrentPosition, videoDuration);
+            int progressPercent = (int) ((long) position * 100 / videoDuration);
+            if (progressPercent != shownPercent) {
+                shownPercent = progressPercent;
+                progressBar.setProgress(progressPercent);
+            }
 
-            int remainingSeconds = (videoDuration - videoCurrentPosition) / 1000;
-            String timerDisplay = remainingSeconds > 0 ? remainingSeconds + "s" : "Done";
-            timerText.setText(timerDisplay);
+            int remainingSeconds = Math.min((videoDuration - position) / 1000, timerLabels.length - 1);
+            if (remainingSeconds != shownSeconds && remainingSeconds >= 0) {
+                shownSeconds = remainingSeconds;
+                timerText.setText(timerLabels[remainingSeconds]);
+            }
 
             // Show close button after threshold
-            if (progress >= customization.closeThreshold && closeButton.getVisibility() == View.GONE) {
+            if (position >= closeAtPosition && closeButton.getVisibility() == View.GONE) {
                 showCloseButton();
                 instructionText.setText(customization.instructionCanClose);
             }
@@ -760,14 +1000,12 @@
 
         private void cleanup() {
             stopProgressTracking();
-
-            if (mediaPlayer != null) {
-                mediaPlayer.release();
-                mediaPlayer = null;
-            }
-
-            if (adVideo != null) {
-                adVideo.stopPlayback();
+            stopVideo();
+            hidePoster();
+            posterFrame = null;
+            showStartedAt = 0;
+            if (adDialog != null && adDialog.getWindow() != null) {
+                adDialog.getWindow().getDecorView().getViewTreeObserver().removeOnWindowFocusChangeListener(focusListener);
             }
 
             isShowing = false;
@@ -0,0 +1,315 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.MediaType;
+
+/**
+ * Compact binary wire format for ad responses.
+ * Negotiated through the Accept header; the backend answers with
+ * {@link #MEDIA_TYPE} when it supports it and with JSON otherwise.
+ *
+ * Layout: [schemaVersion:u8][status:u8], then either [message:string] (status 0) or
+ * [count:varint] followed by count entries of [length:varint][fields], where length 0
+ * is a no-fill. Fields are [key:varint][value], key = (fieldNumber << 1) | wireType,
+ * with wire type 0 = zigzag varint and 1 = length-prefixed UTF-8. Unknown fields are
+ * skipped, so new fields can be added without a schema version bump.
+ */
+class AdDataCodec {
+    private static final String TAG = "AdDataCodec";
+
+    static final String MEDIA_TYPE = "application/x-adsdk-binary";
+    static final int SCHEMA_VERSION = 1;
+
+    private static final int STATUS_ERROR = 0;
+    private static final int STATUS_OK = 1;
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_BYTES = 1;
+
+    // Field numbers; never reuse a retired number
+    private static final int FIELD_AD_ID = 1;
+    private static final int FIELD_TITLE = 2;
+    private static final int FIELD_DESCRIPTION = 3;
+    private static final int FIELD_IMAGE_URL = 4;
+    private static final int FIELD_VIDEO_URL = 5;
+    private static final int FIELD_CLICK_URL = 6;
+    private static final int FIELD_CTA_TEXT = 7;
+    private static final int FIELD_SPONSORED_LABEL = 8;
+    private static final int FIELD_REWARD_TYPE = 9;
+    private static final int FIELD_REWARD_AMOUNT = 10;
+
+    // Bounds that keep a corrupt stream from forcing huge allocations
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    private static final int MAX_ENTRY_BYTES = 1024 * 1024;
+    private static final int MAX_BATCH_COUNT = 1024;
+
+    private AdDataCodec() {}
+
+    /** Accept header value preferring the binary format with JSON as fallback. */
+    static String acceptHeader() {
+        return MEDIA_TYPE + "; v=" + SCHEMA_VERSION + ", application/json; q=0.5";
+    }
+
+    static boolean isBinary(MediaType contentType) {
+        return contentType != null
+                && MEDIA_TYPE.equals(contentType.type() + "/" + contentType.subtype());
+    }
+
+    // Decoding
+
+    static AdData decodeAdResponse(InputStream in) {
+        try {
+            List<AdData> ads = decode(new Input(in), 1);
+            if (ads.isEmpty() || ads.get(0) == null) {
+                throw new IOException("Missing ad entry");
+            }
+            return ads.get(0);
+        } catch (IOException e) {
+            Logger.e(TAG, "Failed to decode ad response", e);
+            throw new RuntimeException("Invalid ad response format", e);
+        }
+    }
+
+    /** Decode a batch response; entries beyond those sent are no-fills (null). */
+    static List<AdData> decodeBatchResponse(InputStream in, int expectedCount) {
+        try {
+            List<AdData> ads = decode(new Input(in), expectedCount);
+            while (ads.size() < expectedCount) {
+                ads.add(null);
+            }
+            return ads;
+        } catch (IOException e) {
+            Logger.e(TAG, "Failed to decode batch ad response", e);
+            throw new RuntimeException("Invalid batch ad response format", e);
+        }
+    }
+
+    private static List<AdData> decode(Input input, int expectedCount) throws IOException {
+        int version = input.readByte();
+        if (version != SCHEMA_VERSION) {
+            throw new IOException("Unsupported schema version: " + version);
+        }
+
+        int status = input.readByte();
+        if (status == STATUS_ERROR) {
+            throw new IOException("API returned error: " + input.readString(MAX_FIELD_BYTES));
+        }
+        if (status != STATUS_OK) {
+            throw new IOException("Unknown status: " + status);
+        }
+
+        long count = input.readVarint();
+        if (count > MAX_BATCH_COUNT) {
+            throw new IOException("Too many entries: " + count);
+        }
+
+        List<AdData> ads = new ArrayList<>(Math.max(0, expectedCount));
+        for (int i = 0; i < count; i++) {
+            AdData adData = readEntry(input);
+            // Extra entries are still read so the stream is fully consumed and validated
+            if (ads.size() < expectedCount) ads.add(adData);
+        }
+        return ads;
+    }
+
+    private static AdData readEntry(Input input) throws IOException {
+        long length = input.readVarint();
+        if (length == 0) return null;
+        if (length < 0 || length > MAX_ENTRY_BYTES) {
+            throw new IOException("Entry too large: " + length);
+        }
+
+        AdData adData = new AdData();
+        adData.setTitle("");
+        adData.setDescription("");
+        adData.setImageUrl("");
+        adData.setVideoUrl("");
+        adData.setCtaText("Learn More");
+        adData.setSponsoredLabel("Sponsored");
+        boolean hasReward = false;
+
+        long end = input.position + length;
+        while (input.position < end) {
+            long key = input.readVarint();
+            int field = (int) (key >>> 1);
+            int wireType = (int) (key & 1);
+
+            if (wireType == WIRE_VARINT) {
+                long value = zigzagDecode(input.readVarint());
+                if (field == FIELD_REWARD_AMOUNT) {
+                    if (!hasReward) adData.setRewardType("coins");
+                    hasReward = true;
+                    adData.setRewardAmount((int) value);
+                }
+                continue;
+            }
+
+            String value = input.readString(MAX_FIELD_BYTES);
+            switch (field) {
+                case FIELD_AD_ID: adData.setAdId(value); break;
+                case FIELD_TITLE: adData.setTitle(value); break;
+                case FIELD_DESCRIPTION: adData.setDescription(value); break;
+                case FIELD_IMAGE_URL: adData.setImageUrl(value); break;
+                case FIELD_VIDEO_URL: adData.setVideoUrl(value); break;
+                case FIELD_CLICK_URL: adData.setClickUrl(value); break;
+                case FIELD_CTA_TEXT: adData.setCtaText(value); break;
+                case FIELD_SPONSORED_LABEL: adData.setSponsoredLabel(value); break;
+                case FIELD_REWARD_TYPE:
+                    if (!hasReward) adData.setRewardAmount(1);
+                    hasReward = true;
+                    adData.setRewardType(value);
+                    break;
+                default:
+                    // Unknown length-prefixed field from a newer backend
+                    break;
+            }
+        }
+        if (input.position != end) {
+            throw new IOException("Field overran entry");
+        }
+
+        // The entry is consumed to its end, so an incomplete ad is just a no-fill for its
+        // placement; the rest of the batch still decodes
+        if (adData.getAdId() == null || adData.getClickUrl() == null) {
+            Logger.w(TAG, "Dropping entry missing adId or clickUrl");
+            return null;
+        }
+        return adData;
+    }
+
+    // Encoding (used by tests and backend tooling)
+
+    static byte[] encodeAdResponse(AdData adData) {
+        return encodeBatchResponse(Collections.singletonList(adData));
+    }
+
+    /** Encode ads in request order; a null entry is a no-fill. */
+    static byte[] encodeBatchResponse(List<AdData> ads) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(SCHEMA_VERSION);
+        out.write(STATUS_OK);
+        writeVarint(out, ads.size());
+        for (AdData adData : ads) {
+            if (adData == null) {
+                writeVarint(out, 0);
+                continue;
+            }
+            byte[] entry = encodeEntry(adData);
+            writeVarint(out, entry.length);
+            out.write(entry, 0, entry.length);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] encodeErrorResponse(String message) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(SCHEMA_VERSION);
+        out.write(STATUS_ERROR);
+        writeBytes(out, (message != null ? message : "").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeEntry(AdData adData) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeString(out, FIELD_AD_ID, adData.getAdId());
+        writeString(out, FIELD_TITLE, adData.getTitle());
+        writeString(out, FIELD_DESCRIPTION, adData.getDescription());
+        writeString(out, FIELD_IMAGE_URL, adData.getImageUrl());
+        writeString(out, FIELD_VIDEO_URL, adData.getVideoUrl());
+        writeString(out, FIELD_CLICK_URL, adData.getClickUrl());
+        writeString(out, FIELD_CTA_TEXT, adData.getCtaText());
+        writeString(out, FIELD_SPONSORED_LABEL, adData.getSponsoredLabel());
+        if (adData.getRewardType() != null) {
+            writeString(out, FIELD_REWARD_TYPE, adData.getRewardType());
+            writeVarint(out, (FIELD_REWARD_AMOUNT << 1) | WIRE_VARINT);
+            writeVarint(out, zigzagEncode(adData.getRewardAmount()));
+        }
+        // Entry length 0 means no-fill, so an ad always carries at least one byte
+        if (out.size() == 0) {
+            writeString(out, FIELD_AD_ID, "");
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int field, String value) {
+        if (value == null) return;
+        writeVarint(out, (field << 1) | WIRE_BYTES);
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Position-tracking reader over the response stream. */
+    private static class Input {
+        private final InputStream in;
+        private byte[] scratch = new byte[256];
+        long position = 0;
+
+        Input(InputStream in) {
+            this.in = in;
+        }
+
+        int readByte() throws IOException {
+            int b = in.read();
+            if (b < 0) throw new EOFException("Unexpected end of response");
+            position++;
+            return b;
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        String readString(int maxBytes) throws IOException {
+            long length = readVarint();
+            if (length < 0 || length > maxBytes) {
+                throw new IOException("Field too large: " + length);
+            }
+            int size = (int) length;
+            if (scratch.length < size) scratch = new byte[size];
+            int read = 0;
+            while (read < size) {
+                int n = in.read(scratch, read, size - read);
+                if (n < 0) throw new EOFException("Unexpected end of response");
+                read += n;
+            }
+            position += size;
+            return new String(scratch, 0, size, StandardCharsets.UTF_8);
+        }
+    }
+}
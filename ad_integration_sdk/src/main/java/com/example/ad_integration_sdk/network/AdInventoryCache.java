@@ -0,0 +1,307 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.Constants;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ready-to-show ad inventory keyed on (placementId, adType, size), so a placement
+ * loaded at one size is never served at another. Fullscreen placements have no size.
+ * Holds up to a per-placement depth of fresh AdData objects, oldest first, so a
+ * loadAd can be served without a network round trip. Entries are evicted once
+ * older than the TTL, when a placement is over its depth, and when the cache as
+ * a whole is over its size bound. Each ad is handed out at most once.
+ * With a stale grace window, an ad past its TTL but within the grace is still
+ * served when nothing fresher is cached; the caller should then refill.
+ */
+public class AdInventoryCache {
+    private static final String TAG = "AdInventoryCache";
+
+    public static final int DEFAULT_DEPTH = 2;
+    public static final int DEFAULT_MAX_ENTRIES = 20;
+
+    private final Map<String, Slot> slots = new HashMap<>();
+    private long maxAgeMs = Constants.CACHE_MAX_AGE_MS;
+    private long staleGraceMs = 0;
+    private int defaultDepth = DEFAULT_DEPTH;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private int totalEntries = 0;
+
+    static String key(String placementId, String adType) {
+        return key(placementId, adType, null);
+    }
+
+    /** Key for a placement at a canonical size name (see InFlightRequests.sizeName), or null for none. */
+    static String key(String placementId, String adType, String sizeName) {
+        return placementId + "|" + adType + "|" + (sizeName != null ? sizeName : "");
+    }
+
+    synchronized AdData poll(String placementId, String adType) {
+        return poll(placementId, adType, null);
+    }
+
+    /**
+     * Take the oldest fresh ad for a placement, or null on a miss.
+     * A stale ad is only returned when no fresh one is cached; see {@link #isStale}.
+     */
+    synchronized AdData poll(String placementId, String adType, String sizeName) {
+        Slot slot = slotFor(key(placementId, adType, sizeName));
+        expire(slot);
+        // Stale ads sit at the head; skip them while something fresher is behind
+        while (slot.ads.size() > 1 && isStale(slot.ads.peekFirst())) {
+            slot.ads.pollFirst();
+            totalEntries--;
+            slot.expirations++;
+        }
+        AdData adData = slot.ads.pollFirst();
+        if (adData != null) {
+            totalEntries--;
+            slot.hits++;
+            if (isStale(adData)) slot.staleHits++;
+        } else {
+            slot.misses++;
+        }
+        return adData;
+    }
+
+    /** Whether an ad is past its TTL, i.e. only servable within the grace window. */
+    synchronized boolean isStale(AdData adData) {
+        return adData.isExpired(maxAgeMs);
+    }
+
+    synchronized void offer(String placementId, String adType, AdData adData) {
+        offer(placementId, adType, null, adData);
+    }
+
+    /** Add a freshly loaded ad, evicting the oldest entries past the depth or size bound. */
+    synchronized void offer(String placementId, String adType, String sizeName, AdData adData) {
+        if (adData == null || adData.isExpired(maxAgeMs)) return;
+
+        Slot slot = slotFor(key(placementId, adType, sizeName));
+        expire(slot);
+        slot.ads.addLast(adData);
+        totalEntries++;
+
+        while (slot.ads.size() > slot.depth) {
+            slot.ads.pollFirst();
+            totalEntries--;
+            slot.evictions++;
+        }
+        while (totalEntries > maxEntries) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Reserve refill slots for a placement.
+     * @return how many ads to fetch so that cached plus in-flight ads reach the depth
+     */
+    synchronized int reserveRefill(String placementId, String adType) {
+        return reserveRefill(placementId, adType, null);
+    }
+
+    synchronized int reserveRefill(String placementId, String adType, String sizeName) {
+        Slot slot = slotFor(key(placementId, adType, sizeName));
+        expire(slot);
+        // Stale ads do not count towards the depth: they are replaced, not kept
+        int fresh = 0;
+        for (AdData adData : slot.ads) {
+            if (!isStale(adData)) fresh++;
+        }
+        int needed = Math.max(0, slot.depth - fresh - slot.refilling);
+        slot.refilling += needed;
+        return needed;
+    }
+
+    /** Release one reserved refill slot once its fetch has finished, successfully or not. */
+    synchronized void releaseRefill(String placementId, String adType) {
+        releaseRefill(placementId, adType, null);
+    }
+
+    synchronized void releaseRefill(String placementId, String adType, String sizeName) {
+        Slot slot = slotFor(key(placementId, adType, sizeName));
+        slot.refilling = Math.max(0, slot.refilling - 1);
+    }
+
+    /**
+     * Wall-clock time (ms) at which the oldest fresh ad for a placement goes stale,
+     * or -1 if no fresh ad is cached.
+     */
+    public synchronized long getNextStaleAt(String placementId, String adType) {
+        Slot slot = slots.get(key(placementId, adType));
+        if (slot == null) return -1;
+        expire(slot);
+        for (AdData adData : slot.ads) {
+            if (!isStale(adData)) return adData.getTimestamp() + maxAgeMs;
+        }
+        return -1;
+    }
+
+    /** Number of ads ready for a placement, including stale ones within the grace window. */
+    public synchronized int getReadyCount(String placementId, String adType) {
+        return getReadyCount(placementId, adType, null);
+    }
+
+    /** Ready count for a banner placement at one size. */
+    public synchronized int getReadyCount(String placementId, String adType, AdSize adSize) {
+        Slot slot = slotFor(key(placementId, adType, InFlightRequests.sizeName(adSize)));
+        expire(slot);
+        return slot.ads.size();
+    }
+
+    /** Set how many ready ads to keep for one placement. */
+    public synchronized void setDepth(String placementId, String adType, int depth) {
+        setDepth(placementId, adType, null, depth);
+    }
+
+    /** Set the depth for a banner placement at one size. */
+    public synchronized void setDepth(String placementId, String adType, AdSize adSize, int depth) {
+        Slot slot = slotFor(key(placementId, adType, InFlightRequests.sizeName(adSize)));
+        slot.depth = Math.max(0, depth);
+        while (slot.ads.size() > slot.depth) {
+            slot.ads.pollFirst();
+            totalEntries--;
+            slot.evictions++;
+        }
+    }
+
+    /** Depth used by placements without an explicit setDepth. */
+    public synchronized void setDefaultDepth(int depth) {
+        defaultDepth = Math.max(0, depth);
+    }
+
+    /** Upper bound on ready ads across all placements. */
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(0, maxEntries);
+        while (totalEntries > this.maxEntries) {
+            evictOldest();
+        }
+    }
+
+    /** Maximum age of a cached ad before it is discarded. */
+    public synchronized void setMaxAgeMs(long maxAgeMs) {
+        this.maxAgeMs = Math.max(0, maxAgeMs);
+    }
+
+    /**
+     * How long past the TTL an ad may still be served while a fresh one is fetched.
+     * 0 (the default) discards ads as soon as they expire.
+     */
+    public synchronized void setStaleGraceMs(long staleGraceMs) {
+        this.staleGraceMs = Math.max(0, staleGraceMs);
+    }
+
+    /** Counters for one placement. */
+    public synchronized Stats getStats(String placementId, String adType) {
+        return getStats(placementId, adType, null);
+    }
+
+    /** Counters for a banner placement at one size. */
+    public synchronized Stats getStats(String placementId, String adType, AdSize adSize) {
+        Slot slot = slots.get(key(placementId, adType, InFlightRequests.sizeName(adSize)));
+        if (slot == null) {
+            return new Stats(0, 0, 0, 0, 0, 0, defaultDepth);
+        }
+        return new Stats(slot.hits, slot.staleHits, slot.misses, slot.expirations, slot.evictions,
+                slot.ads.size(), slot.depth);
+    }
+
+    /** Drop every cached ad; counters are kept. */
+    public synchronized void clear() {
+        for (Slot slot : slots.values()) {
+            slot.ads.clear();
+        }
+        totalEntries = 0;
+    }
+
+    private Slot slotFor(String key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            slot = new Slot(defaultDepth);
+            slots.put(key, slot);
+        }
+        return slot;
+    }
+
+    // Ads are appended in load order, so expired ones are always at the head
+    private void expire(Slot slot) {
+        while (!slot.ads.isEmpty() && slot.ads.peekFirst().isExpired(maxAgeMs + staleGraceMs)) {
+            slot.ads.pollFirst();
+            totalEntries--;
+            slot.expirations++;
+        }
+    }
+
+    private void evictOldest() {
+        Slot oldest = null;
+        for (Slot slot : slots.values()) {
+            AdData head = slot.ads.peekFirst();
+            if (head != null && (oldest == null || head.getTimestamp() < oldest.ads.peekFirst().getTimestamp())) {
+                oldest = slot;
+            }
+        }
+        if (oldest == null) {
+            totalEntries = 0;
+            return;
+        }
+        oldest.ads.pollFirst();
+        totalEntries--;
+        oldest.evictions++;
+        Logger.d(TAG, "Inventory over " + maxEntries + " ads, evicted oldest");
+    }
+
+    /** Per-placement queue and counters. */
+    private static class Slot {
+        final Deque<AdData> ads = new ArrayDeque<>();
+        int depth;
+        int refilling = 0;
+        long hits = 0;
+        long staleHits = 0;
+        long misses = 0;
+        long expirations = 0;
+        long evictions = 0;
+
+        Slot(int depth) {
+            this.depth = depth;
+        }
+    }
+
+    /** Snapshot of one placement's cache counters. */
+    public static class Stats {
+        public final long hits;
+        /** Hits served past the TTL, within the stale grace window. */
+        public final long staleHits;
+        public final long misses;
+        public final long expirations;
+        public final long evictions;
+        public final int size;
+        public final int depth;
+
+        Stats(long hits, long staleHits, long misses, long expirations, long evictions, int size, int depth) {
+            this.hits = hits;
+            this.staleHits = staleHits;
+            this.misses = misses;
+            this.expirations = expirations;
+            this.evictions = evictions;
+            this.size = size;
+            this.depth = depth;
+        }
+
+        /** Share of loads served from the cache, or 0 before any load. */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hits + ", staleHits=" + staleHits + ", misses=" + misses + ", expirations=" + expirations
+                    + ", evictions=" + evictions + ", size=" + size + "/" + depth + "}";
+        }
+    }
+}
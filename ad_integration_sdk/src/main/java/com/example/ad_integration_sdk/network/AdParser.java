@@ -1,77 +1,278 @@
 package com.example.ad_integration_sdk.network;
 
-//import com.example.ad_integration_sdk.utils.Logger;
-//import org.json.JSONObject;
-//
-//public class AdParser {
-//    private static final String TAG = "AdParser";
-//
-//    // FIXED: Return AdData instead of AdParser.AdData
-//    public static AdData parseAdResponse(String jsonResponse) {
-//        try {
-//            JSONObject json = new JSONObject(jsonResponse);
-//
-//            if (!json.optBoolean("success", false)) {
-//                throw new Exception("API returned error: " + json.optString("message"));
-//            }
-//
-//            JSONObject adJson = json.getJSONObject("ad");
-//
-//            AdData adData = new AdData();
-//            adData.setAdId(adJson.getString("adId"));
-//            adData.setTitle(adJson.optString("title"));
-//            adData.setDescription(adJson.optString("description"));
-//            adData.setImageUrl(adJson.optString("imageUrl"));
-//            adData.setVideoUrl(adJson.optString("videoUrl"));
-//            adData.setClickUrl(adJson.getString("clickUrl"));
-//            adData.setCtaText(adJson.optString("ctaText", "Learn More"));
-//            adData.setSponsoredLabel(adJson.optString("sponsoredLabel", "Sponsored"));
-//
-//            // Rewarded ad specific
-//            if (adJson.has("reward")) {
-//                JSONObject reward = adJson.getJSONObject("reward");
-//                adData.setRewardType(reward.optString("type", "coins"));
-//                adData.setRewardAmount(reward.optInt("amount", 1));
-//            }
-//
-//            return adData;
-//
-//        } catch (Exception e) {
-//            Logger.e(TAG, "Failed to parse ad response", e);
-//            throw new RuntimeException("Invalid ad response format", e);
-//        }
-//    }
-//}
+import com.example.ad_integration_sdk.utils.Logger;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Streaming ad response parser.
+ * Reads tokens straight from the response stream into AdData and skips unknown
+ * fields without building a JSON tree or buffering the body as a String.
+ */
+public class AdParser {
+    private static final String TAG = "AdParser";
 
+    public static AdData parseAdResponse(String jsonResponse) {
+        return parseAdResponse(new StringReader(jsonResponse));
+    }
 
+    public static AdData parseAdResponse(InputStream in) {
+        return parseAdResponse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
 
+    private static AdData parseAdResponse(Reader source) {
+        try (JsonReader reader = new JsonReader(source)) {
+            boolean success = false;
+            String message = "";
+            AdData adData = null;
 
-public class AdParser {
-    private static final String TAG = "AdParser";
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "success":
+                        success = nextBoolean(reader);
+                        break;
+                    case "message":
+                        message = nextString(reader, "");
+                        break;
+                    case "ad":
+                        adData = readAd(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
 
-    public static AdData parseAdResponse(String jsonResponse) {
-        // For testing, return a mock ad if in test mode
-        return createMockAd();
+            if (!success) {
+                throw new IOException("API returned error: " + message);
+            }
+            if (adData == null) {
+                throw new IOException("Missing ad object");
+            }
+            return adData;
+
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to parse ad response", e);
+            throw new RuntimeException("Invalid ad response format", e);
+        }
+    }
+
+    public static List<AdData> parseBatchResponse(String jsonResponse, int expectedCount) {
+        return parseBatchResponse(new StringReader(jsonResponse), expectedCount);
+    }
+
+    /**
+     * Parse a batch response. The "ads" array is in request order; an entry without
+     * an "ad" object (or an empty slot) is a no-fill and maps to null.
+     */
+    public static List<AdData> parseBatchResponse(InputStream in, int expectedCount) {
+        return parseBatchResponse(new InputStreamReader(in, StandardCharsets.UTF_8), expectedCount);
+    }
+
+    private static List<AdData> parseBatchResponse(Reader source, int expectedCount) {
+        try (JsonReader reader = new JsonReader(source)) {
+            boolean success = false;
+            String message = "";
+            List<AdData> ads = new ArrayList<>(expectedCount);
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "success":
+                        success = nextBoolean(reader);
+                        break;
+                    case "message":
+                        message = nextString(reader, "");
+                        break;
+                    case "ads":
+                        readBatchEntries(reader, ads, expectedCount);
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+
+            if (!success) {
+                throw new IOException("API returned error: " + message);
+            }
+            while (ads.size() < expectedCount) {
+                ads.add(null);
+            }
+            return ads;
+
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to parse batch ad response", e);
+            throw new RuntimeException("Invalid batch ad response format", e);
+        }
+    }
+
+    private static void readBatchEntries(JsonReader reader, List<AdData> ads, int expectedCount) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (ads.size() >= expectedCount || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                if (ads.size() < expectedCount) ads.add(null);
+                continue;
+            }
+
+            AdData adData = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("ad".equals(reader.nextName())) {
+                    adData = readAdFields(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            // One incomplete ad is a no-fill for its placement, not a failed batch
+            if (adData != null && !isComplete(adData)) {
+                Logger.w(TAG, "Batch entry " + ads.size() + " is missing adId or clickUrl");
+                adData = null;
+            }
+            ads.add(adData);
+        }
+        reader.endArray();
+    }
+
+    private static AdData readAd(JsonReader reader) throws IOException {
+        AdData adData = readAdFields(reader);
+        if (adData != null && !isComplete(adData)) {
+            throw new IOException("Ad is missing adId or clickUrl");
+        }
+        return adData;
+    }
+
+    private static boolean isComplete(AdData adData) {
+        return adData.getAdId() != null && adData.getClickUrl() != null;
+    }
+
+    // Reads an "ad" object without checking required fields; null for a JSON null
+    private static AdData readAdFields(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        AdData adData = new AdData();
+        adData.setTitle("");
+        adData.setDescription("");
+        adData.setImageUrl("");
+        adData.setVideoUrl("");
+        adData.setCtaText("Learn More");
+        adData.setSponsoredLabel("Sponsored");
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "adId":
+                    adData.setAdId(nextString(reader, null));
+                    break;
+                case "title":
+                    adData.setTitle(nextString(reader, ""));
+                    break;
+                case "description":
+                    adData.setDescription(nextString(reader, ""));
+                    break;
+                case "imageUrl":
+                    adData.setImageUrl(nextString(reader, ""));
+                    break;
+                case "videoUrl":
+                    adData.setVideoUrl(nextString(reader, ""));
+                    break;
+                case "clickUrl":
+                    adData.setClickUrl(nextString(reader, null));
+                    break;
+                case "ctaText":
+                    adData.setCtaText(nextString(reader, "Learn More"));
+                    break;
+                case "sponsoredLabel":
+                    adData.setSponsoredLabel(nextString(reader, "Sponsored"));
+                    break;
+                case "reward":
+                    readReward(reader, adData);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return adData;
+    }
+
+    // Rewarded ad specific
+    private static void readReward(JsonReader reader, AdData adData) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+
+        adData.setRewardType("coins");
+        adData.setRewardAmount(1);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type":
+                    adData.setRewardType(nextString(reader, "coins"));
+                    break;
+                case "amount":
+                    adData.setRewardAmount(nextInt(reader, 1));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String nextString(JsonReader reader, String defaultValue) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return defaultValue;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            default:
+                reader.skipValue();
+                return defaultValue;
+        }
+    }
+
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
     }
 
-    // Mock ad for testing purposes
-    private static AdData createMockAd() {
-        AdData mockAd = new AdData();
-        mockAd.setAdId("mock-ad-001");
-        mockAd.setTitle("Premium Mobile Game");
-        mockAd.setDescription("Download now for exclusive rewards!");
-        mockAd.setImageUrl("https://via.placeholder.com/300x250/4CAF50/FFFFFF?text=Mock+Ad");
-        mockAd.setVideoUrl(""); // No video for this mock
-        mockAd.setClickUrl("https://play.google.com/store");
-        mockAd.setCtaText("Install Now");
-        mockAd.setSponsoredLabel("Sponsored");
-
-        // For rewarded ads
-        mockAd.setRewardType("coins");
-        mockAd.setRewardAmount(50);
-
-        return mockAd;
+    private static int nextInt(JsonReader reader, int defaultValue) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER || reader.peek() == JsonToken.STRING) {
+            try {
+                return reader.nextInt();
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        reader.skipValue();
+        return defaultValue;
     }
 }
@@ -0,0 +1,68 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-placement connect/read deadlines derived from observed load latency.
+ * Each (placementId, adType) keeps its own rolling latency window; the read deadline
+ * is a multiple of its p99, clamped to floors and ceilings that depend on the ad type
+ * so a banner slot never waits as long as a rewarded-video manifest may need to.
+ * The whole load, retries and backoff included, gets a fixed multiple of the read deadline.
+ */
+class AdaptiveTimeouts {
+
+    private static final int MIN_SAMPLES = 10;
+    private static final double P99 = 0.99;
+    private static final double READ_HEADROOM = 2.0;
+    private static final int CALL_HEADROOM = 2;
+    private static final long CONNECT_FLOOR_MS = 1000;
+
+    private final Map<String, LatencyTracker> trackers = new HashMap<>();
+
+    /** Deadlines for the next load of this placement. */
+    HttpTransport.Timeouts timeoutsFor(String placementId, String adType) {
+        long floor = floorMs(adType);
+        long ceiling = ceilingMs(adType);
+
+        LatencyTracker tracker = tracker(placementId, adType, false);
+        long readMs = ceiling;
+        if (tracker != null && tracker.getSampleCount() >= MIN_SAMPLES) {
+            long observed = (long) (tracker.percentile(P99) * READ_HEADROOM);
+            readMs = Math.max(floor, Math.min(observed, ceiling));
+        }
+        long connectMs = Math.min(readMs, Math.max(CONNECT_FLOOR_MS, readMs / 2));
+        return new HttpTransport.Timeouts(connectMs, readMs, readMs * CALL_HEADROOM);
+    }
+
+    /** Record one attempt's latency, or how long a timed-out attempt ran. */
+    void record(String placementId, String adType, long latencyMs) {
+        tracker(placementId, adType, true).record(latencyMs);
+    }
+
+    private synchronized LatencyTracker tracker(String placementId, String adType, boolean create) {
+        String key = placementId + "|" + adType;
+        LatencyTracker tracker = trackers.get(key);
+        if (tracker == null && create) {
+            tracker = new LatencyTracker(LatencyTracker.DEFAULT_WINDOW);
+            trackers.put(key, tracker);
+        }
+        return tracker;
+    }
+
+    private static long floorMs(String adType) {
+        if (Constants.AD_TYPE_BANNER.equals(adType)) return 1500;
+        if (Constants.AD_TYPE_INTERSTITIAL.equals(adType)) return 2000;
+        if (Constants.AD_TYPE_REWARDED.equals(adType)) return 3000;
+        return 2000;
+    }
+
+    private static long ceilingMs(String adType) {
+        if (Constants.AD_TYPE_BANNER.equals(adType)) return 5000;
+        if (Constants.AD_TYPE_INTERSTITIAL.equals(adType)) return Constants.NETWORK_TIMEOUT_MS;
+        if (Constants.AD_TYPE_REWARDED.equals(adType)) return 20000;
+        return Constants.NETWORK_TIMEOUT_MS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ad_integration_sdk.network;
+
+/**
+ * Per-host circuit breaker.
+ * Opens after consecutive failures so calls fail fast instead of hammering a
+ * backend that is down, then lets a single trial request through after a cool-down.
+ * Failures are counted per logical request, not per retry attempt.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    static final long DEFAULT_OPEN_DURATION_MS = 30000;
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean trialInFlight = false;
+
+    CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, Clock.ELAPSED_REALTIME);
+    }
+
+    CircuitBreaker(int failureThreshold, long openDurationMs, Clock clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    /** Whether a request may be sent now. In half-open state only one trial is let through. */
+    synchronized boolean allowRequest() {
+        if (state == State.OPEN && clock.now() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) return false;
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.now();
+        }
+    }
+
+    /** A canceled request says nothing about the host; just free the trial slot. */
+    synchronized void recordCanceled() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
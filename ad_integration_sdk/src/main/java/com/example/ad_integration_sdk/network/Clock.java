@@ -0,0 +1,13 @@
+package com.example.ad_integration_sdk.network;
+
+import android.os.SystemClock;
+
+/**
+ * Monotonic millisecond time source, so timed state can be tested without waiting.
+ */
+interface Clock {
+
+    Clock ELAPSED_REALTIME = SystemClock::elapsedRealtime;
+
+    long now();
+}
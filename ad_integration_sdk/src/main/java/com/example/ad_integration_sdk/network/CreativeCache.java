@@ -0,0 +1,407 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Bounded LRU disk cache for video creatives.
+ * Creatives are downloaded over the shared transport when an ad loads, written to a
+ * ".part" file and renamed once complete, so playback only ever sees whole files.
+ * The directory is kept under a byte budget by evicting the least recently used
+ * files; access times are persisted through lastModified so order survives restarts.
+ * A download in progress can be read while it fills (see {@link CreativeProxy}).
+ */
+public class CreativeCache {
+    private static final String TAG = "CreativeCache";
+
+    public static final long DEFAULT_MAX_BYTES = Constants.CACHE_MAX_SIZE_MB * 1024L * 1024L;
+
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File directory;
+    private final long maxBytes;
+    private final HttpTransport transport;
+    private final HttpTransport.Timeouts timeouts;
+    // Index and download starts run in order, so stale partial files are cleared before any download
+    private final ExecutorService executor;
+    // Download bodies are read here, off the transport's shared dispatcher threads
+    private final ExecutorService downloads;
+
+    // File name -> size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Download> downloading = new HashMap<>();
+    private final CountDownLatch indexReady = new CountDownLatch(1);
+    private boolean indexLoaded = false;
+    private long totalBytes = 0;
+
+    // Stats
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long bytesDownloaded = 0;
+
+    public CreativeCache(File directory, long maxBytes, HttpTransport transport) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.transport = transport;
+        this.timeouts = new HttpTransport.Timeouts(Constants.NETWORK_TIMEOUT_MS, Constants.VIDEO_TIMEOUT_MS);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-creatives");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.downloads = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-downloads");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::loadIndex);
+    }
+
+    /** Start downloading a creative unless it is already cached or on its way. */
+    public void prefetch(String url) {
+        if (url == null || url.trim().isEmpty()) return;
+        executor.execute(() -> startDownload(url));
+    }
+
+    /**
+     * The creative as a readable download: already complete if cached, otherwise the
+     * in-progress download, started now if nothing is fetching it yet.
+     * Blocks until the index has loaded. Returns null if the creative cannot be cached.
+     */
+    Download acquire(String url, long timeoutMs) throws InterruptedException {
+        if (!indexReady.await(timeoutMs, TimeUnit.MILLISECONDS)) return null;
+
+        String name = keyFor(url);
+        synchronized (this) {
+            Long size = entries.get(name);
+            if (size != null) {
+                File file = new File(directory, name);
+                if (file.exists()) {
+                    hitCount++;
+                    file.setLastModified(System.currentTimeMillis());
+                    return Download.complete(file, size);
+                }
+                totalBytes -= entries.remove(name);
+            }
+            Download download = downloading.get(name);
+            if (download != null) return download;
+        }
+        return startDownload(url);
+    }
+
+    /**
+     * The complete local copy of a creative, or null if it is not cached yet.
+     * Counts as a use for LRU ordering. Only the in-memory index is consulted, so this
+     * is safe on the main thread; the access time is persisted in the background.
+     */
+    public synchronized File getCachedFile(String url) {
+        if (!indexLoaded || url == null || entries.get(keyFor(url)) == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        File file = new File(directory, keyFor(url));
+        long now = System.currentTimeMillis();
+        executor.execute(() -> file.setLastModified(now));
+        return file;
+    }
+
+    public synchronized boolean isCached(String url) {
+        return url != null && entries.containsKey(keyFor(url));
+    }
+
+    public synchronized long getSizeBytes() {
+        return totalBytes;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long getBytesDownloaded() {
+        return bytesDownloaded;
+    }
+
+    private void loadIndex() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            Logger.w(TAG, "Cannot create creative cache at " + directory);
+            indexReady.countDown();
+            return;
+        }
+
+        File[] files = directory.listFiles();
+        if (files == null) files = new File[0];
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        synchronized (this) {
+            for (File file : files) {
+                if (file.getName().endsWith(PARTIAL_SUFFIX)) {
+                    // Left behind by a download the previous process never finished
+                    file.delete();
+                } else if (file.isFile()) {
+                    entries.put(file.getName(), file.length());
+                    totalBytes += file.length();
+                }
+            }
+            indexLoaded = true;
+            trimToSize();
+        }
+        indexReady.countDown();
+        Logger.d(TAG, "Creative cache holds " + entries.size() + " files, " + totalBytes + " bytes");
+    }
+
+    private Download startDownload(String url) {
+        String name = keyFor(url);
+        Download download;
+        synchronized (this) {
+            if (!indexLoaded || entries.containsKey(name)) return null;
+            download = downloading.get(name);
+            if (download != null) return download;
+            download = new Download(new File(directory, name + PARTIAL_SUFFIX), new File(directory, name));
+            downloading.put(name, download);
+        }
+
+        Request request;
+        try {
+            request = new Request.Builder().url(url).get().build();
+        } catch (IllegalArgumentException e) {
+            Logger.w(TAG, "Invalid creative URL: " + url);
+            finishDownload(name, download, -1);
+            return null;
+        }
+
+        Logger.d(TAG, "Downloading creative " + url);
+        Download started = download;
+        transport.enqueue(request, timeouts, new HttpTransport.StreamCallback() {
+            @Override
+            public void onResponse(Response response) {
+                // A multi-MB body would hold a dispatcher thread and a per-host slot shared with ad loads
+                downloads.execute(() -> {
+                    try (Response owned = response) {
+                        store(url, name, started, owned);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Logger.w(TAG, "Creative download failed: " + error);
+                finishDownload(name, started, -1);
+            }
+        });
+        return download;
+    }
+
+    private void store(String url, String name, Download download, Response response) {
+        if (!response.isSuccessful()) {
+            Logger.w(TAG, "Creative download failed: HTTP " + response.code());
+            finishDownload(name, download, -1);
+            return;
+        }
+        long length = response.body().contentLength();
+        if (length > maxBytes) {
+            Logger.w(TAG, "Creative larger than the cache, streaming instead: " + url);
+            finishDownload(name, download, -1);
+            return;
+        }
+        MediaType contentType = response.body().contentType();
+        long size = write(download, response.body().byteStream(), length,
+                contentType != null ? contentType.toString() : null);
+        finishDownload(name, download, size);
+    }
+
+    // Stream into a partial file; only a complete download is renamed into place
+    private long write(Download download, InputStream in, long contentLength, String contentType) {
+        long written = 0;
+        try (OutputStream out = new FileOutputStream(download.partialFile)) {
+            // Readers may open the partial file from here on
+            download.begin(contentLength, contentType);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                written += read;
+                if (written > maxBytes) {
+                    throw new IOException("Creative exceeds cache size");
+                }
+                out.write(buffer, 0, read);
+                // Unbuffered stream: bytes are visible to readers of the file once written
+                download.advance(written);
+            }
+        } catch (IOException e) {
+            Logger.w(TAG, "Failed to store creative: " + e.getMessage());
+            download.partialFile.delete();
+            return -1;
+        }
+
+        return download.commit() ? written : -1;
+    }
+
+    private synchronized void finishDownload(String name, Download download, long size) {
+        downloading.remove(name);
+        if (size < 0) {
+            download.fail();
+            return;
+        }
+
+        entries.put(name, size);
+        totalBytes += size;
+        bytesDownloaded += size;
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            // A file being played stays readable through its open descriptor
+            new File(directory, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            evictionCount++;
+            iterator.remove();
+        }
+    }
+
+    /** Stable file-name key for a creative URL. */
+    public static String keyFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(url.hashCode());
+        }
+    }
+
+    /**
+     * Progress of one creative download, readable while it fills.
+     * Readers wait on it for more bytes; the file moves from partial to final on commit.
+     */
+    static class Download {
+        final File partialFile;
+        final File finalFile;
+        private long contentLength = -1;
+        private String contentType;
+        private long written = 0;
+        private boolean started = false;
+        private boolean finished = false;
+        private boolean failed = false;
+
+        Download(File partialFile, File finalFile) {
+            this.partialFile = partialFile;
+            this.finalFile = finalFile;
+        }
+
+        static Download complete(File file, long length) {
+            Download download = new Download(file, file);
+            download.contentLength = length;
+            download.written = length;
+            download.started = true;
+            download.finished = true;
+            return download;
+        }
+
+        synchronized void begin(long contentLength, String contentType) {
+            this.contentLength = contentLength;
+            this.contentType = contentType;
+            this.started = true;
+            notifyAll();
+        }
+
+        synchronized void advance(long written) {
+            this.written = written;
+            notifyAll();
+        }
+
+        /** Move the partial file into place; readers holding it open are unaffected. */
+        synchronized boolean commit() {
+            if (!partialFile.renameTo(finalFile)) {
+                partialFile.delete();
+                return false;
+            }
+            contentLength = written;
+            finished = true;
+            notifyAll();
+            return true;
+        }
+
+        synchronized void fail() {
+            failed = true;
+            notifyAll();
+        }
+
+        /** Wait until response headers arrive. @return false if the download failed or timed out */
+        synchronized boolean awaitStarted(long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (!started && !failed) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                wait(remaining);
+            }
+            return !failed;
+        }
+
+        /**
+         * Wait until bytes past position are on disk.
+         * @return the number of bytes available from position, or -1 at the end or on failure
+         */
+        synchronized long awaitAvailable(long position, long timeoutMs) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while (written <= position && !finished && !failed) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return -1;
+                wait(remaining);
+            }
+            if (written > position) return written - position;
+            return -1;
+        }
+
+        /** Open whichever file currently holds the bytes. */
+        synchronized RandomAccessFile open() throws IOException {
+            return new RandomAccessFile(finished ? finalFile : partialFile, "r");
+        }
+
+        /** Total size, or -1 while unknown. */
+        synchronized long getContentLength() {
+            return contentLength;
+        }
+
+        synchronized String getContentType() {
+            return contentType;
+        }
+    }
+}
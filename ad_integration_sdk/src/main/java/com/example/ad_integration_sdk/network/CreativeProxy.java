@@ -0,0 +1,262 @@
+package com.example.ad_integration_sdk.network;
+
+import android.os.Build;
+import android.security.NetworkSecurityPolicy;
+
+import com.example.ad_integration_sdk.utils.Constants;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loopback HTTP proxy that plays video creatives while they download.
+ * The player is pointed at http://127.0.0.1:port/token/key; the proxy serves the
+ * bytes already in the cache's partial file, waits for the download to write more,
+ * and honours Range requests so seeking works. The network is only read once, by
+ * the cache download, so nothing is fetched twice. Creatives the cache cannot hold
+ * are redirected to their remote URL.
+ */
+class CreativeProxy {
+    private static final String TAG = "CreativeProxy";
+
+    static final String LOOPBACK_HOST = "127.0.0.1";
+
+    private static final long WAIT_TIMEOUT_MS = Constants.VIDEO_TIMEOUT_MS;
+    private static final int BUFFER_SIZE = 32 * 1024;
+    private static final int MAX_HEADER_LINE = 8 * 1024;
+    private static final String DEFAULT_CONTENT_TYPE = "video/mp4";
+
+    private final CreativeCache cache;
+    // Random path prefix so other apps on the device cannot use the proxy
+    private final String token;
+    private final Map<String, String> remoteUrls = new ConcurrentHashMap<>();
+    private final ExecutorService connections;
+    private ServerSocket serverSocket;
+
+    CreativeProxy(CreativeCache cache) {
+        this.cache = cache;
+        byte[] random = new byte[16];
+        new SecureRandom().nextBytes(random);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : random) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        this.token = hex.toString();
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Whether the platform lets the media stack talk plain HTTP to the loopback address.
+     * Apps targeting API 28+ block cleartext unless their network security config allows it.
+     */
+    static boolean isCleartextPermitted() {
+        if (Build.VERSION.SDK_INT >= 24) {
+            return NetworkSecurityPolicy.getInstance().isCleartextTrafficPermitted(LOOPBACK_HOST);
+        }
+        if (Build.VERSION.SDK_INT >= 23) {
+            return NetworkSecurityPolicy.getInstance().isCleartextTrafficPermitted();
+        }
+        return true;
+    }
+
+    synchronized boolean start() {
+        if (serverSocket != null) return true;
+        try {
+            serverSocket = new ServerSocket(0, 8, InetAddress.getByName(LOOPBACK_HOST));
+        } catch (IOException e) {
+            Logger.w(TAG, "Cannot start creative proxy: " + e.getMessage());
+            return false;
+        }
+        ServerSocket socket = serverSocket;
+        Thread acceptThread = new Thread(() -> acceptLoop(socket), "AdSDK-proxy-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        Logger.d(TAG, "Creative proxy listening on port " + socket.getLocalPort());
+        return true;
+    }
+
+    synchronized void stop() {
+        if (serverSocket == null) return;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Closing anyway
+        }
+        serverSocket = null;
+        connections.shutdownNow();
+    }
+
+    /** Loopback URL the player should use for a remote creative. */
+    synchronized String urlFor(String remoteUrl) {
+        String key = CreativeCache.keyFor(remoteUrl);
+        remoteUrls.put(key, remoteUrl);
+        return "http://" + LOOPBACK_HOST + ":" + serverSocket.getLocalPort() + "/" + token + "/" + key;
+    }
+
+    private void acceptLoop(ServerSocket server) {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) Logger.w(TAG, "Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket) {
+            client.setSoTimeout((int) WAIT_TIMEOUT_MS);
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = client.getOutputStream();
+
+            String[] requestLine = readLine(in).split(" ");
+            String range = null;
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                int colon = line.indexOf(':');
+                if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Range")) {
+                    range = line.substring(colon + 1).trim();
+                }
+            }
+            if (requestLine.length < 2) {
+                writeStatus(out, "400 Bad Request", null);
+                return;
+            }
+
+            boolean head = "HEAD".equals(requestLine[0]);
+            String remoteUrl = lookup(requestLine[1]);
+            if (remoteUrl == null) {
+                writeStatus(out, "404 Not Found", null);
+                return;
+            }
+
+            CreativeCache.Download download = cache.acquire(remoteUrl, WAIT_TIMEOUT_MS);
+            if (download == null || !download.awaitStarted(WAIT_TIMEOUT_MS)) {
+                // Not cacheable: let the player stream it directly
+                writeStatus(out, "302 Found", "Location: " + remoteUrl + "\r\n");
+                return;
+            }
+            serve(download, range, head, out);
+
+        } catch (IOException e) {
+            // Player closed the connection (seek, stop) or the client timed out
+            Logger.d(TAG, "Proxy connection ended: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve(CreativeCache.Download download, String range, boolean head, OutputStream out)
+            throws IOException, InterruptedException {
+        long length = download.getContentLength();
+        long start = 0;
+        long end = length >= 0 ? length - 1 : -1;
+        boolean partial = false;
+
+        if (range != null && range.startsWith("bytes=") && length >= 0) {
+            String[] bounds = range.substring(6).split("-", 2);
+            try {
+                if (!bounds[0].isEmpty()) {
+                    start = Long.parseLong(bounds[0].trim());
+                    if (bounds.length > 1 && !bounds[1].trim().isEmpty()) {
+                        end = Math.min(end, Long.parseLong(bounds[1].trim()));
+                    }
+                } else if (bounds.length > 1) {
+                    // Suffix range: the last N bytes
+                    start = Math.max(0, length - Long.parseLong(bounds[1].trim()));
+                }
+                partial = true;
+            } catch (NumberFormatException e) {
+                // Malformed range: serve the whole creative
+                start = 0;
+                end = length - 1;
+                partial = false;
+            }
+            if (start >= length || start > end) {
+                writeStatus(out, "416 Range Not Satisfiable", "Content-Range: bytes */" + length + "\r\n");
+                return;
+            }
+        }
+
+        String contentType = download.getContentType();
+        StringBuilder headers = new StringBuilder()
+                .append("HTTP/1.1 ").append(partial ? "206 Partial Content" : "200 OK").append("\r\n")
+                .append("Content-Type: ").append(contentType != null ? contentType : DEFAULT_CONTENT_TYPE).append("\r\n")
+                .append("Connection: close\r\n");
+        if (length >= 0) {
+            headers.append("Accept-Ranges: bytes\r\n")
+                    .append("Content-Length: ").append(end - start + 1).append("\r\n");
+        }
+        if (partial) {
+            headers.append("Content-Range: bytes ").append(start).append('-').append(end)
+                    .append('/').append(length).append("\r\n");
+        }
+        headers.append("\r\n");
+        out.write(headers.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (head) {
+            out.flush();
+            return;
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (RandomAccessFile file = download.open()) {
+            long position = start;
+            while (end < 0 || position <= end) {
+                long available = download.awaitAvailable(position, WAIT_TIMEOUT_MS);
+                if (available < 0) break;
+
+                int count = (int) Math.min(available, buffer.length);
+                if (end >= 0) count = (int) Math.min(count, end - position + 1);
+                file.seek(position);
+                file.readFully(buffer, 0, count);
+                out.write(buffer, 0, count);
+                position += count;
+            }
+        }
+        out.flush();
+    }
+
+    // Path is /token/key
+    private String lookup(String path) {
+        String prefix = "/" + token + "/";
+        if (!path.startsWith(prefix)) return null;
+        return remoteUrls.get(path.substring(prefix.length()));
+    }
+
+    private static void writeStatus(OutputStream out, String status, String extraHeaders) throws IOException {
+        String response = "HTTP/1.1 " + status + "\r\n"
+                + (extraHeaders != null ? extraHeaders : "")
+                + "Content-Length: 0\r\nConnection: close\r\n\r\n";
+        out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c != '\r') line.append((char) c);
+            if (line.length() > MAX_HEADER_LINE) throw new IOException("Header line too long");
+        }
+        if (c == -1 && line.length() == 0) throw new IOException("Connection closed");
+        return line.toString();
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only tracking event log backed by a memory-mapped file.
+ * Appends are plain writes into the mapped region, so they cost microseconds and
+ * survive a process crash (the kernel owns the dirty pages). Pending records are
+ * replayed on the next launch. Once nothing is pending the log is truncated; otherwise
+ * acknowledged records are compacted away on a background thread by rewriting the
+ * pending ones into a fresh file and renaming it over the log.
+ *
+ * Layout: header [magic:int][version:int][writePosition:int][reserved:int][nextSequence:long]
+ * [installId:2 longs], then records
+ * [length:int][state:byte][sequence:long][timestamp:long][adId:short+utf8][eventType:short+utf8].
+ * A record only becomes visible once writePosition is advanced past it. The install id is
+ * generated with the log and sequences are never reused within it, so the pair names an
+ * event uniquely even across truncation and replay.
+ */
+class EventLog {
+    private static final String TAG = "EventLog";
+
+    static final int DEFAULT_CAPACITY_BYTES = 256 * 1024;
+
+    private static final int MAGIC = 0x41444556; // "ADEV"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int NEXT_SEQUENCE_OFFSET = 16;
+    private static final int INSTALL_ID_OFFSET = 24;
+    // length(int) + state(byte) + sequence(long) + timestamp(long) + two string lengths (short)
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 8 + 2 + 2;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    private static final byte STATE_PENDING = 1;
+    private static final byte STATE_ACKED = 2;
+
+    private final File logFile;
+    private final int capacity;
+    private final ExecutorService compactor;
+    // Serializes compactions; never held together with the log's own lock by appenders
+    private final Object compactLock = new Object();
+
+    // Swapped by compact()
+    private RandomAccessFile file;
+    private MappedByteBuffer buffer;
+
+    // sequence -> record offset for every pending record
+    private final Map<Long, Integer> pendingOffsets = new HashMap<>();
+    private final List<LoggedEvent> recovered = new ArrayList<>();
+    private int writePosition;
+    private int pendingBytes;
+    private long nextSequence = 1;
+    private String installId;
+    // Bumped on every truncation so a compaction in progress knows its copy is stale
+    private int truncations;
+    private boolean compactionScheduled;
+    private boolean closed;
+
+    private EventLog(File logFile, RandomAccessFile file, MappedByteBuffer buffer, int capacity) {
+        this.logFile = logFile;
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-eventlog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Open (or create) the log and recover any pending records left by a previous process. */
+    static EventLog open(File logFile, int capacity) throws IOException {
+        File parent = logFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        // Left by a compaction that never reached its rename; the log itself is intact
+        new File(logFile.getPath() + COMPACT_SUFFIX).delete();
+
+        RandomAccessFile file = new RandomAccessFile(logFile, "rw");
+        try {
+            MappedByteBuffer buffer = map(file, capacity);
+            EventLog log = new EventLog(logFile, file, buffer, capacity);
+            log.recover();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a pending event.
+     * @return the record's sequence number, or -1 if the log is full
+     */
+    synchronized long append(String adId, String eventType, long timestamp) {
+        byte[] adIdBytes = utf8(adId);
+        byte[] typeBytes = utf8(eventType);
+        if (adIdBytes.length > MAX_STRING_BYTES || typeBytes.length > MAX_STRING_BYTES) {
+            return -1;
+        }
+
+        int recordSize = RECORD_OVERHEAD + adIdBytes.length + typeBytes.length;
+        if (closed) return -1;
+        if (writePosition + recordSize > capacity) {
+            Logger.w(TAG, "Event log full, event will not survive a crash");
+            scheduleCompaction();
+            return -1;
+        }
+
+        long sequence = nextSequence++;
+        buffer.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+        int offset = writePosition;
+        buffer.position(offset);
+        buffer.putInt(recordSize);
+        buffer.put(STATE_PENDING);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.putShort((short) adIdBytes.length);
+        buffer.put(adIdBytes);
+        buffer.putShort((short) typeBytes.length);
+        buffer.put(typeBytes);
+
+        // Commit point: the record is only visible once the write position covers it
+        setWritePosition(offset + recordSize);
+        pendingOffsets.put(sequence, offset);
+        pendingBytes += recordSize;
+
+        if (writePosition > capacity - capacity / 4) {
+            scheduleCompaction();
+        }
+        return sequence;
+    }
+
+    /** Mark a record as delivered. Once nothing is pending the log is truncated. */
+    synchronized void ack(long sequence) {
+        Integer offset = pendingOffsets.remove(sequence);
+        if (offset == null || closed) return;
+
+        buffer.put(offset + 4, STATE_ACKED);
+        pendingBytes -= buffer.getInt(offset);
+        if (pendingOffsets.isEmpty()) {
+            pendingBytes = 0;
+            truncations++;
+            setWritePosition(HEADER_SIZE);
+        }
+    }
+
+    /** Pending records found when the log was opened, in append order. Cleared once taken. */
+    synchronized List<LoggedEvent> takeRecovered() {
+        List<LoggedEvent> events = new ArrayList<>(recovered);
+        recovered.clear();
+        return events;
+    }
+
+    /** Identifies this log's sequence space; stable until the log file is lost or reset. */
+    synchronized String getInstallId() {
+        return installId;
+    }
+
+    synchronized int getPendingCount() {
+        return pendingOffsets.size();
+    }
+
+    synchronized void close() {
+        if (closed) return;
+        closed = true;
+        compactor.shutdown();
+        try {
+            buffer.force();
+            file.close();
+        } catch (IOException e) {
+            Logger.w(TAG, "Failed to close event log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop acknowledged records. Pending records are copied into a fresh file that is
+     * renamed over the log, so a crash at any point leaves either the old log or the new
+     * one whole. Only the swap at the end holds the log's lock; records appended and
+     * acknowledged while the copy was written are carried over.
+     */
+    void compact() {
+        synchronized (compactLock) {
+            byte[] live;
+            int copiedEnd;
+            int truncationsAtCopy;
+            synchronized (this) {
+                compactionScheduled = false;
+                if (closed || writePosition - HEADER_SIZE == pendingBytes) return;
+                copiedEnd = writePosition;
+                truncationsAtCopy = truncations;
+                live = pendingRecords(HEADER_SIZE, copiedEnd);
+            }
+
+            File temp = new File(logFile.getPath() + COMPACT_SUFFIX);
+            RandomAccessFile tempFile = null;
+            boolean swapped = false;
+            try {
+                tempFile = new RandomAccessFile(temp, "rw");
+                tempFile.setLength(0);
+                MappedByteBuffer tempBuffer = map(tempFile, capacity);
+                tempBuffer.putInt(0, MAGIC);
+                tempBuffer.putInt(4, VERSION);
+                tempBuffer.putLong(INSTALL_ID_OFFSET, buffer.getLong(INSTALL_ID_OFFSET));
+                tempBuffer.putLong(INSTALL_ID_OFFSET + 8, buffer.getLong(INSTALL_ID_OFFSET + 8));
+                tempBuffer.position(HEADER_SIZE);
+                tempBuffer.put(live);
+                tempBuffer.putInt(WRITE_POSITION_OFFSET, HEADER_SIZE + live.length);
+                tempBuffer.force();
+
+                synchronized (this) {
+                    // A truncation rewrote the region that was copied; the log is short anyway
+                    if (closed || truncations != truncationsAtCopy) return;
+                    byte[] tail = pendingRecords(copiedEnd, writePosition);
+                    int end = HEADER_SIZE + live.length + tail.length;
+                    tempBuffer.position(HEADER_SIZE + live.length);
+                    tempBuffer.put(tail);
+
+                    // Re-index, marking records acknowledged during the copy
+                    Map<Long, Integer> offsets = new HashMap<>();
+                    for (int offset = HEADER_SIZE; offset < end; offset += tempBuffer.getInt(offset)) {
+                        long sequence = tempBuffer.getLong(offset + 5);
+                        if (pendingOffsets.containsKey(sequence)) {
+                            offsets.put(sequence, offset);
+                        } else {
+                            tempBuffer.put(offset + 4, STATE_ACKED);
+                        }
+                    }
+                    tempBuffer.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+                    tempBuffer.putInt(WRITE_POSITION_OFFSET, end);
+
+                    if (!temp.renameTo(logFile)) {
+                        Logger.w(TAG, "Failed to replace event log during compaction");
+                        return;
+                    }
+                    RandomAccessFile oldFile = file;
+                    file = tempFile;
+                    buffer = tempBuffer;
+                    writePosition = end;
+                    pendingOffsets.clear();
+                    pendingOffsets.putAll(offsets);
+                    swapped = true;
+                    closeQuietly(oldFile);
+                }
+            } catch (IOException | RuntimeException e) {
+                Logger.w(TAG, "Event log compaction failed: " + e.getMessage());
+            } finally {
+                if (!swapped) {
+                    closeQuietly(tempFile);
+                    temp.delete();
+                }
+            }
+        }
+    }
+
+    private void scheduleCompaction() {
+        // Only worth a rewrite once a quarter of the log is reclaimable
+        if (compactionScheduled || writePosition - HEADER_SIZE - pendingBytes < capacity / 4) return;
+        compactionScheduled = true;
+        compactor.execute(this::compact);
+    }
+
+    /** Copies of the pending records in [from, to), in log order. */
+    private byte[] pendingRecords(int from, int to) {
+        int size = 0;
+        for (int offset = from; offset < to; offset += buffer.getInt(offset)) {
+            if (buffer.get(offset + 4) == STATE_PENDING) size += buffer.getInt(offset);
+        }
+
+        byte[] records = new byte[size];
+        int write = 0;
+        for (int offset = from; offset < to; offset += buffer.getInt(offset)) {
+            int recordSize = buffer.getInt(offset);
+            if (buffer.get(offset + 4) == STATE_PENDING) {
+                buffer.position(offset);
+                buffer.get(records, write, recordSize);
+                write += recordSize;
+            }
+        }
+        return records;
+    }
+
+    private static MappedByteBuffer map(RandomAccessFile file, int capacity) throws IOException {
+        if (file.length() < capacity) {
+            file.setLength(capacity);
+        }
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+    }
+
+    private void recover() {
+        boolean valid = buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION;
+        int end = valid ? buffer.getInt(WRITE_POSITION_OFFSET) : HEADER_SIZE;
+        if (!valid || end < HEADER_SIZE || end > capacity) {
+            UUID id = UUID.randomUUID();
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+            buffer.putLong(INSTALL_ID_OFFSET, id.getMostSignificantBits());
+            buffer.putLong(INSTALL_ID_OFFSET + 8, id.getLeastSignificantBits());
+            installId = id.toString();
+            setWritePosition(HEADER_SIZE);
+            return;
+        }
+        installId = new UUID(buffer.getLong(INSTALL_ID_OFFSET), buffer.getLong(INSTALL_ID_OFFSET + 8)).toString();
+        nextSequence = Math.max(1, buffer.getLong(NEXT_SEQUENCE_OFFSET));
+
+        int offset = HEADER_SIZE;
+        while (offset + RECORD_OVERHEAD <= end) {
+            int recordSize = buffer.getInt(offset);
+            if (recordSize < RECORD_OVERHEAD || offset + recordSize > end) {
+                Logger.w(TAG, "Truncated record at " + offset + ", dropping tail");
+                break;
+            }
+
+            byte state = buffer.get(offset + 4);
+            long sequence = buffer.getLong(offset + 5);
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            if (state == STATE_PENDING) {
+                long timestamp = buffer.getLong(offset + 13);
+                buffer.position(offset + 21);
+                String adId = readString(offset + recordSize);
+                String eventType = readString(offset + recordSize);
+                if (adId != null && eventType != null) {
+                    pendingOffsets.put(sequence, offset);
+                    pendingBytes += recordSize;
+                    recovered.add(new LoggedEvent(sequence, adId, eventType, timestamp));
+                } else {
+                    buffer.put(offset + 4, STATE_ACKED);
+                }
+            }
+            offset += recordSize;
+        }
+        if (pendingOffsets.isEmpty()) {
+            offset = HEADER_SIZE;
+        }
+        setWritePosition(offset);
+        scheduleCompaction();
+
+        if (!recovered.isEmpty()) {
+            Logger.i(TAG, "Recovered " + recovered.size() + " undelivered tracking events");
+        }
+    }
+
+    private void setWritePosition(int position) {
+        writePosition = position;
+        buffer.putInt(WRITE_POSITION_OFFSET, position);
+    }
+
+    private String readString(int recordEnd) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (buffer.position() + length > recordEnd) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** An event read back from the log. */
+    static class LoggedEvent {
+        final long sequence;
+        final String adId;
+        final String eventType;
+        final long timestamp;
+
+        LoggedEvent(long sequence, String adId, String eventType, long timestamp) {
+            this.sequence = sequence;
+            this.adId = adId;
+            this.eventType = eventType;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ad_integration_sdk.network;
+
+/**
+ * Decides when to send a hedged (duplicate) ad request and caps how often it happens.
+ * The hedge delay tracks a high percentile of recent load latency, so only the slow
+ * tail gets a second request. A token budget refilled per primary request keeps
+ * hedges at or below a fixed share of traffic.
+ */
+class HedgePolicy {
+
+    static final double DEFAULT_PERCENTILE = 0.95;
+    static final double DEFAULT_MAX_HEDGE_RATIO = 0.1;
+
+    private static final int MIN_SAMPLES = 20;
+    private static final long MIN_HEDGE_DELAY_MS = 20;
+    private static final double MAX_BURST_TOKENS = 5;
+
+    private final LatencyTracker latencies = new LatencyTracker(LatencyTracker.DEFAULT_WINDOW);
+
+    private boolean enabled = false;
+    private double percentile = DEFAULT_PERCENTILE;
+    private double maxHedgeRatio = DEFAULT_MAX_HEDGE_RATIO;
+    private double tokens = 0;
+
+    // Stats
+    private long primaryCount = 0;
+    private long hedgeCount = 0;
+
+    synchronized void configure(boolean enabled, double percentile, double maxHedgeRatio) {
+        this.enabled = enabled;
+        this.percentile = Math.max(0.5, Math.min(percentile, 0.999));
+        this.maxHedgeRatio = Math.max(0, Math.min(maxHedgeRatio, 1));
+    }
+
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Count a primary request and earn its share of hedge budget. */
+    synchronized void onPrimaryRequest() {
+        primaryCount++;
+        tokens = Math.min(MAX_BURST_TOKENS, tokens + maxHedgeRatio);
+    }
+
+    /**
+     * How long to wait for the primary before hedging.
+     * @return the delay in ms, or -1 when hedging is off or there is not enough history
+     */
+    long getHedgeDelayMs() {
+        double p;
+        synchronized (this) {
+            if (!enabled) return -1;
+            p = percentile;
+        }
+        if (latencies.getSampleCount() < MIN_SAMPLES) return -1;
+        return Math.max(MIN_HEDGE_DELAY_MS, latencies.percentile(p));
+    }
+
+    /** Spend one hedge from the budget, if any is left. */
+    synchronized boolean tryAcquireHedge() {
+        if (tokens < 1) return false;
+        tokens -= 1;
+        hedgeCount++;
+        return true;
+    }
+
+    void recordLatency(long latencyMs) {
+        latencies.record(latencyMs);
+    }
+
+    synchronized long getPrimaryCount() {
+        return primaryCount;
+    }
+
+    synchronized long getHedgeCount() {
+        return hedgeCount;
+    }
+}
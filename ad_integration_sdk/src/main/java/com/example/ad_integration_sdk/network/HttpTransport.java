@@ -0,0 +1,368 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Shared HTTP transport for all SDK traffic.
+ * Owns a single OkHttpClient so banner, interstitial and rewarded loads reuse
+ * pooled keep-alive connections and multiplex over one HTTP/2 connection when
+ * the backend negotiates it.
+ */
+public class HttpTransport {
+    private static final String TAG = "HttpTransport";
+
+    public static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    // Connection pool configuration
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+    private static final int MAX_REQUESTS_PER_HOST = 10;
+
+    private static final String CANCELED = "Canceled";
+    private static final String TIMEOUT = "timeout";
+
+    private final OkHttpClient client;
+    private final HttpUrl baseUrl;
+    private final RetryPolicy retryPolicy;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final Clock clock;
+    private final ScheduledExecutorService retryScheduler;
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+
+    // Stats
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failFastCount = new AtomicLong();
+
+    public HttpTransport(String baseUrl) {
+        this(baseUrl, createDefaultClient(), Clock.ELAPSED_REALTIME);
+    }
+
+    // Visible for tests that point the transport at a local server
+    HttpTransport(String baseUrl, OkHttpClient client, Clock clock) {
+        this(baseUrl, client, RetryPolicy.defaultPolicy(), CircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                CircuitBreaker.DEFAULT_OPEN_DURATION_MS, clock);
+    }
+
+    // Visible for tests of retry and breaker behaviour
+    HttpTransport(String baseUrl, OkHttpClient client, RetryPolicy retryPolicy,
+                  int failureThreshold, long openDurationMs, Clock clock) {
+        HttpUrl parsed = HttpUrl.parse(baseUrl);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Invalid base URL: " + baseUrl);
+        }
+        this.baseUrl = parsed;
+        this.client = client;
+        this.retryPolicy = retryPolicy;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Build the pooled client used in production. */
+    static OkHttpClient createDefaultClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS,
+                        KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(Constants.NETWORK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(Constants.NETWORK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .writeTimeout(Constants.NETWORK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                // Retries are ours (RetryPolicy); OkHttp's would stack on top of them
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    /**
+     * POST a JSON body to a path relative to the base URL.
+     * The callback runs on an OkHttp worker thread; the response is closed after it returns.
+     */
+    public Handle postJson(String path, String json, ResponseCallback callback) {
+        return postJson(path, json, null, callback);
+    }
+
+    /** POST a JSON body with per-call deadlines (null keeps the client defaults). */
+    public Handle postJson(String path, String json, Timeouts timeouts, ResponseCallback callback) {
+        Request request = new Request.Builder()
+                .url(resolve(path))
+                .post(RequestBody.create(json, JSON))
+                .build();
+        return enqueue(request, timeouts, callback);
+    }
+
+    /**
+     * Enqueue a prepared request on the shared client.
+     * Network errors and retryable statuses are retried with backoff and jitter,
+     * unless the host's circuit breaker is open, in which case the call fails fast.
+     * The breaker sees one outcome per request, after its last attempt.
+     */
+    public Handle enqueue(Request request, ResponseCallback callback) {
+        return enqueue(request, null, callback);
+    }
+
+    /**
+     * Enqueue with per-attempt connect/read deadlines and, if {@code timeouts.callMs} is
+     * set, one deadline for the whole request: each attempt gets only the time left, and
+     * no retry is scheduled that would start after it.
+     */
+    public Handle enqueue(Request request, Timeouts timeouts, ResponseCallback callback) {
+        Handle handle = new Handle();
+        // Derived clients share the pool and dispatcher; only the deadlines differ
+        OkHttpClient callClient = timeouts == null ? client : client.newBuilder()
+                .connectTimeout(timeouts.connectMs, TimeUnit.MILLISECONDS)
+                .readTimeout(timeouts.readMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(timeouts.readMs, TimeUnit.MILLISECONDS)
+                .build();
+        long deadline = timeouts != null && timeouts.callMs > 0 ? now() + timeouts.callMs : 0;
+        attempt(callClient, request, callback, handle, 0, deadline);
+        return handle;
+    }
+
+    private void attempt(OkHttpClient callClient, Request request, ResponseCallback callback,
+                         Handle handle, int retry, long deadline) {
+        if (handle.isCanceled()) {
+            callback.onFailure(CANCELED);
+            return;
+        }
+        long remaining = deadline > 0 ? deadline - now() : 0;
+        if (deadline > 0 && remaining <= 0) {
+            callback.onFailure(TIMEOUT);
+            return;
+        }
+
+        String host = request.url().host();
+        CircuitBreaker breaker = breakerFor(host);
+        // Retries were admitted with their first attempt; they stop if the breaker has tripped since
+        boolean allowed = retry == 0 ? breaker.allowRequest() : breaker.getState() == CircuitBreaker.State.CLOSED;
+        if (!allowed) {
+            failFastCount.incrementAndGet();
+            Logger.w(TAG, "Circuit open for " + host + ", failing fast");
+            callback.onFailure(Constants.ERROR_NETWORK_ERROR + ": circuit open for " + host);
+            return;
+        }
+
+        OkHttpClient attemptClient = deadline > 0
+                ? callClient.newBuilder().callTimeout(remaining, TimeUnit.MILLISECONDS).build()
+                : callClient;
+        long startedAt = now();
+        Call call = attemptClient.newCall(request);
+        handle.setCall(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                // Connect, read and call timeouts all surface as InterruptedIOException
+                boolean timedOut = e instanceof InterruptedIOException;
+                if (handle.isCanceled() || (call.isCanceled() && !timedOut)) {
+                    breaker.recordCanceled();
+                    callback.onFailure(CANCELED);
+                    return;
+                }
+                Logger.w(TAG, "Request failed: " + request.url().encodedPath() + " - " + e.getMessage());
+                if (timedOut) {
+                    callback.onAttemptTimedOut(now() - startedAt);
+                }
+                if (!scheduleRetry(callClient, request, callback, handle, retry, deadline, breaker)) {
+                    breaker.recordFailure();
+                    callback.onFailure(e.getMessage() != null ? e.getMessage() : Constants.ERROR_NETWORK_ERROR);
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (RetryPolicy.isRetryableStatus(response.code())) {
+                    if (scheduleRetry(callClient, request, callback, handle, retry, deadline, breaker)) {
+                        response.close();
+                        return;
+                    }
+                    breaker.recordFailure();
+                } else {
+                    breaker.recordSuccess();
+                }
+
+                boolean handedOff = false;
+                try {
+                    callback.onResponse(response);
+                    handedOff = callback instanceof StreamCallback;
+                } catch (Exception e) {
+                    Logger.e(TAG, "Failed to handle response", e);
+                    callback.onFailure(e.getMessage() != null ? e.getMessage() : Constants.ERROR_NETWORK_ERROR);
+                } finally {
+                    if (!handedOff) response.close();
+                }
+            }
+        });
+    }
+
+    private boolean scheduleRetry(OkHttpClient callClient, Request request, ResponseCallback callback,
+                                  Handle handle, int retry, long deadline, CircuitBreaker breaker) {
+        // A half-open trial is not retried: its one outcome decides the breaker
+        if (retry >= retryPolicy.maxRetries || handle.isCanceled()
+                || breaker.getState() != CircuitBreaker.State.CLOSED) {
+            return false;
+        }
+
+        long delay = retryPolicy.delayForRetry(retry);
+        if (deadline > 0 && now() + delay >= deadline) {
+            Logger.d(TAG, "No time left to retry " + request.url().encodedPath());
+            return false;
+        }
+        retryCount.incrementAndGet();
+        Logger.d(TAG, "Retrying " + request.url().encodedPath() + " in " + delay + "ms (retry " + (retry + 1) + ")");
+        retryScheduler.schedule(() -> attempt(callClient, request, callback, handle, retry + 1, deadline),
+                delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    CircuitBreaker breakerFor(String host) {
+        synchronized (breakers) {
+            CircuitBreaker breaker = breakers.get(host);
+            if (breaker == null) {
+                breaker = new CircuitBreaker(failureThreshold, openDurationMs, clock);
+                breakers.put(host, breaker);
+            }
+            return breaker;
+        }
+    }
+
+    public HttpUrl resolve(String path) {
+        HttpUrl url = baseUrl.resolve(path);
+        if (url == null) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+        return url;
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    /** Number of open connections (idle and active) held by the shared pool. */
+    public int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    /** Total retries scheduled across all requests. */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /** Requests rejected without touching the network because a breaker was open. */
+    public long getFailFastCount() {
+        return failFastCount.get();
+    }
+
+    /** Current circuit breaker state per host. */
+    public Map<String, CircuitBreaker.State> getCircuitStates() {
+        Map<String, CircuitBreaker.State> states = new HashMap<>();
+        synchronized (breakers) {
+            for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+                states.put(entry.getKey(), entry.getValue().getState());
+            }
+        }
+        return states;
+    }
+
+    /** Cancel in-flight calls and release pooled connections. */
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        client.dispatcher().cancelAll();
+        client.connectionPool().evictAll();
+    }
+
+    /** Per-attempt connect and read deadlines, and an optional deadline across all attempts. */
+    public static class Timeouts {
+        public final long connectMs;
+        public final long readMs;
+        /** Whole-request deadline including retries and backoff; 0 for none. */
+        public final long callMs;
+
+        public Timeouts(long connectMs, long readMs) {
+            this(connectMs, readMs, 0);
+        }
+
+        public Timeouts(long connectMs, long readMs, long callMs) {
+            this.connectMs = connectMs;
+            this.readMs = readMs;
+            this.callMs = callMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Timeouts{connect=" + connectMs + "ms, read=" + readMs + "ms, call=" + callMs + "ms}";
+        }
+    }
+
+    /** Cancellable handle for a request across all of its retry attempts. */
+    public static class Handle {
+        private volatile Call call;
+        private volatile boolean canceled = false;
+
+        void setCall(Call call) {
+            this.call = call;
+            if (canceled) call.cancel();
+        }
+
+        public void cancel() {
+            canceled = true;
+            Call current = call;
+            if (current != null) current.cancel();
+        }
+
+        public boolean isCanceled() {
+            return canceled;
+        }
+    }
+
+    /** Callback interface for transport responses. */
+    public interface ResponseCallback {
+        void onResponse(Response response) throws Exception;
+        void onFailure(String error);
+
+        /** An attempt hit a deadline after {@code elapsedMs}; it may still be retried. */
+        default void onAttemptTimedOut(long elapsedMs) {}
+    }
+
+    /**
+     * A callback that owns the response once onResponse returns normally, so a long body
+     * can be read on another thread without holding a dispatcher thread. It must close
+     * the response itself; if onResponse throws, the transport closes it.
+     */
+    public interface StreamCallback extends ResponseCallback {
+    }
+}
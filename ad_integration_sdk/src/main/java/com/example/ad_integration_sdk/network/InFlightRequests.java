@@ -0,0 +1,114 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.AdConfig;
+import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-flight ad load table keyed on (placementId, adType, AdSize).
+ * The first caller for a key starts the fetch; later callers attach to the
+ * pending result instead of issuing their own request. Both size types map to one
+ * canonical name, so single and batch loads of a placement coalesce.
+ */
+class InFlightRequests {
+    private static final String TAG = "InFlightRequests";
+
+    private final Map<String, List<NetworkClient.AdLoadCallback>> pending = new HashMap<>();
+    private long coalescedCount = 0;
+
+    static String key(String placementId, String adType, AdSize adSize) {
+        return key(placementId, adType, sizeName(adSize));
+    }
+
+    static String key(String placementId, String adType, AdConfig.AdSize adSize) {
+        return key(placementId, adType, sizeName(adSize));
+    }
+
+    private static String key(String placementId, String adType, String sizeName) {
+        return placementId + "|" + adType + "|" + (sizeName != null ? sizeName : "");
+    }
+
+    /** Canonical size name: the banner size's name, or null for no size. */
+    static String sizeName(AdSize adSize) {
+        return adSize != null ? adSize.getName() : null;
+    }
+
+    /** Canonical size name for a batch request size; banner sizes map to their AdSize names. */
+    static String sizeName(AdConfig.AdSize adSize) {
+        if (adSize == null) return null;
+        switch (adSize) {
+            case BANNER_320x50:
+                return AdSize.BANNER.getName();
+            case BANNER_300x250:
+                return AdSize.MEDIUM_RECTANGLE.getName();
+            case BANNER_728x90:
+                return AdSize.LEADERBOARD.getName();
+            default:
+                return adSize.name();
+        }
+    }
+
+    /**
+     * Register a caller for a key.
+     * @return true if this caller is the first and must start the fetch
+     */
+    synchronized boolean join(String key, NetworkClient.AdLoadCallback callback) {
+        List<NetworkClient.AdLoadCallback> waiters = pending.get(key);
+        if (waiters != null) {
+            waiters.add(callback);
+            coalescedCount++;
+            return false;
+        }
+        waiters = new ArrayList<>();
+        waiters.add(callback);
+        pending.put(key, waiters);
+        return true;
+    }
+
+    /** Remove the entry for a key and return every caller attached to it. */
+    synchronized List<NetworkClient.AdLoadCallback> complete(String key) {
+        List<NetworkClient.AdLoadCallback> waiters = pending.remove(key);
+        return waiters != null ? waiters : Collections.emptyList();
+    }
+
+    /** The batch request size for a banner size, or null if the batch API has none. */
+    static AdConfig.AdSize requestSize(AdSize adSize) {
+        if (adSize == AdSize.BANNER) return AdConfig.AdSize.BANNER_320x50;
+        if (adSize == AdSize.MEDIUM_RECTANGLE) return AdConfig.AdSize.BANNER_300x250;
+        if (adSize == AdSize.LEADERBOARD) return AdConfig.AdSize.BANNER_728x90;
+        return null;
+    }
+
+    /** Complete a key with a loaded ad. A throwing waiter does not keep the rest from hearing. */
+    void completeLoaded(String key, AdData adData) {
+        for (NetworkClient.AdLoadCallback waiter : complete(key)) {
+            try {
+                waiter.onAdLoaded(adData);
+            } catch (RuntimeException e) {
+                Logger.e(TAG, "Ad load callback threw for " + key, e);
+            }
+        }
+    }
+
+    /** Complete a key with a failure, guarding each waiter the same way. */
+    void completeFailed(String key, String error) {
+        for (NetworkClient.AdLoadCallback waiter : complete(key)) {
+            try {
+                waiter.onAdFailedToLoad(error);
+            } catch (RuntimeException e) {
+                Logger.e(TAG, "Ad load callback threw for " + key, e);
+            }
+        }
+    }
+
+    /** Number of loads that attached to an existing fetch instead of starting one. */
+    synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+}
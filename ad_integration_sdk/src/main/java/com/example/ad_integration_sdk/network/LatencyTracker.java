@@ -0,0 +1,44 @@
+package com.example.ad_integration_sdk.network;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of recent request latencies with percentile queries.
+ * Keeps the last N samples in a ring buffer; old samples fall out as new ones arrive.
+ */
+public class LatencyTracker {
+
+    public static final int DEFAULT_WINDOW = 128;
+
+    private final long[] samples;
+    private final long[] scratch;
+    private int count = 0;
+    private int next = 0;
+
+    public LatencyTracker(int window) {
+        this.samples = new long[Math.max(1, window)];
+        this.scratch = new long[samples.length];
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[next] = Math.max(0, latencyMs);
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    public synchronized int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Latency at the given percentile (0..1) of the current window.
+     * @return the percentile in ms, or -1 if no samples have been recorded
+     */
+    public synchronized long percentile(double p) {
+        if (count == 0) return -1;
+        System.arraycopy(samples, 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        int index = (int) Math.ceil(p * count) - 1;
+        return scratch[Math.max(0, Math.min(index, count - 1))];
+    }
+}
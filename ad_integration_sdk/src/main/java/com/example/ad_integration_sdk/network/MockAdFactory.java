@@ -1,6 +1,18 @@
 package com.example.ad_integration_sdk.network;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class MockAdFactory {
+    /** Batch mode: one mock ad per placement, in the same order as the placement IDs. */
+    public static List<AdData> createBatch(String adType, List<String> placementIds) {
+        List<AdData> ads = new ArrayList<>(placementIds.size());
+        for (String placementId : placementIds) {
+            ads.add(create(adType, placementId));
+        }
+        return ads;
+    }
+
     public static AdData create(String adType, String placementId) {
         AdData ad = new AdData();
 
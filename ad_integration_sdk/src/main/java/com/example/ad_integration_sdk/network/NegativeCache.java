@@ -0,0 +1,109 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers placements that just answered no-fill or invalid-placement, keyed on
+ * (placementId, adType), so repeat loads fail fast instead of asking again.
+ * Each further negative answer doubles the backoff up to a cap; any fill clears it.
+ * Invalid placements back off from a longer base, since they rarely fix themselves.
+ */
+public class NegativeCache {
+
+    static final long DEFAULT_NO_FILL_BASE_MS = 30_000;
+    static final long DEFAULT_INVALID_PLACEMENT_BASE_MS = 5 * 60_000;
+    static final long DEFAULT_MAX_BACKOFF_MS = 30 * 60_000;
+
+    private final Clock clock;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long noFillBaseMs = DEFAULT_NO_FILL_BASE_MS;
+    private long invalidPlacementBaseMs = DEFAULT_INVALID_PLACEMENT_BASE_MS;
+    private long maxBackoffMs = DEFAULT_MAX_BACKOFF_MS;
+
+    // Stats
+    private long suppressedCount = 0;
+
+    public NegativeCache() {
+        this(Clock.ELAPSED_REALTIME);
+    }
+
+    NegativeCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** Whether a load result is one this cache remembers. */
+    static boolean isNegative(String error) {
+        return Constants.ERROR_NO_ADS.equals(error) || Constants.ERROR_INVALID_PLACEMENT.equals(error);
+    }
+
+    /**
+     * The remembered error if the placement is still backing off, or null if a load may go out.
+     * A non-null result counts as a suppressed request.
+     */
+    synchronized String check(String placementId, String adType) {
+        Entry entry = entries.get(AdInventoryCache.key(placementId, adType));
+        if (entry == null || clock.now() >= entry.retryAt) {
+            return null;
+        }
+        suppressedCount++;
+        return entry.error;
+    }
+
+    /** Record a failed load; errors other than no-fill and invalid placement are ignored. */
+    synchronized void recordFailure(String placementId, String adType, String error) {
+        if (!isNegative(error)) return;
+
+        String key = AdInventoryCache.key(placementId, adType);
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.error.equals(error)) {
+            entry = new Entry(error);
+            entries.put(key, entry);
+        }
+        long base = Constants.ERROR_INVALID_PLACEMENT.equals(error) ? invalidPlacementBaseMs : noFillBaseMs;
+        // Doubling, capped; the shift is bounded so it cannot overflow
+        long backoff = Math.min(maxBackoffMs, base << Math.min(entry.failures, 20));
+        entry.failures++;
+        entry.retryAt = clock.now() + backoff;
+    }
+
+    synchronized void recordFill(String placementId, String adType) {
+        entries.remove(AdInventoryCache.key(placementId, adType));
+    }
+
+    /** Remaining backoff for a placement in ms, or 0 if loads may go out. */
+    public synchronized long getBackoffRemainingMs(String placementId, String adType) {
+        Entry entry = entries.get(AdInventoryCache.key(placementId, adType));
+        if (entry == null) return 0;
+        return Math.max(0, entry.retryAt - clock.now());
+    }
+
+    /** Base backoff after the first no-fill and first invalid-placement answer, and the cap. */
+    public synchronized void setBackoff(long noFillBaseMs, long invalidPlacementBaseMs, long maxBackoffMs) {
+        this.noFillBaseMs = Math.max(0, noFillBaseMs);
+        this.invalidPlacementBaseMs = Math.max(0, invalidPlacementBaseMs);
+        this.maxBackoffMs = Math.max(0, maxBackoffMs);
+    }
+
+    /** Loads answered from this cache instead of the network. */
+    public synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    /** Forget every placement, e.g. after the publisher fixed its configuration. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        final String error;
+        int failures = 0;
+        long retryAt = 0;
+
+        Entry(String error) {
+            this.error = error;
+        }
+    }
+}
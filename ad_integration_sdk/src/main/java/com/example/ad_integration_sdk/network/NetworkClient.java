@@ -1,185 +1,287 @@
-//package com.example.ad_integration_sdk.network;
-//
-//import android.os.Handler;
-//import android.os.Looper;
-//import com.example.ad_integration_sdk.utils.Logger;
-//                        response.append(line);
-//                    }
-//                    reader.close();
-//
-//                    // Parse ad data
-//                    AdData adData = AdParser.parseAdResponse(response.toString());
-//
-//                    // Return success on main thread
-//                    mainHandler.post(() -> callback.onAdLoaded(adData));
-//
-//                } else {
-//                    String error = "HTTP Error: " + responseCode;
-//                    Logger.e(TAG, error);
-//                    mainHandler.post(() -> callback.onAdFailedToLoad(error));
-//                }
-//
-//                connection.disconnect();
-//
-//            } catch (Exception e) {
-//                Logger.e(TAG, "Failed to load ad", e);
-//                mainHandler.post(() -> callback.onAdFailedToLoad(e.getMessage()));
-//            }
-//        });
-//    }
-//
-//    /**
-//     * Track ad events (impression, click, etc.)
-//     */
-//    public void trackEvent(String adId, String eventType, TrackingCallback callback) {
-//        executorService.execute(() -> {
-//            try {
-//                String baseUrl = isTestMode ? TEST_BASE_URL : BASE_URL;
-//                URL url = new URL(baseUrl + "ads/track");
-//
-//                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-//                connection.setRequestMethod("POST");
-//                connection.setRequestProperty("Content-Type", "application/json");
-//                connection.setConnectTimeout(TIMEOUT_MS);
-//                connection.setReadTimeout(TIMEOUT_MS);
-//                connection.setDoOutput(true);
-//
-//                JSONObject requestBody = new JSONObject();
-//                requestBody.put("publisherId", publisherId);
-//                requestBody.put("adId", adId);
-//                requestBody.put("eventType", eventType);
-//                requestBody.put("timestamp", System.currentTimeMillis());
-//
-//                OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream());
-//                writer.write(requestBody.toString());
-//                writer.flush();
-//                writer.close();
-//
-//                int responseCode = connection.getResponseCode();
-//
-//                if (responseCode == HttpURLConnection.HTTP_OK) {
-//                    mainHandler.post(() -> callback.onTrackingSuccess());
-//                } else {
-//                    mainHandler.post(() -> callback.onTrackingFailed("HTTP Error: " + responseCode));
-//                }
-//
-//                connection.disconnect();
-//
-//            } catch (Exception e) {
-//                Logger.e(TAG, "Failed to track event", e);
-//                mainHandler.post(() -> callback.onTrackingFailed(e.getMessage()));
-//            }
-//        });
-//    }
-//
-//    // Callback interfaces - FIXED TYPES
-//    public interface AdLoadCallback {
-//        void onAdLoaded(AdData adData); // ← CHANGED from AdParser.AdData to AdData
-//        void onAdFailedToLoad(String error);
-//    }
-//
-//    public interface TrackingCallback {
-//        void onTrackingSuccess();
-//        void onTrackingFailed(String error);
-//    }
-//}
-
-
-
-
-//import com.example.ad_integration_sdk.network.AdData; // ← Add this import
-//import org.json.JSONObject;
-//import java.io.BufferedReader;
-//import java.io.InputStreamReader;
-//import java.io.OutputStreamWriter;
-//import java.net.HttpURLConnection;
-//import java.net.URL;
-//import java.util.concurrent.ExecutorService;
-//import java.util.concurrent.Executors;
-//
-//public class NetworkClient {
-//    private static final String TAG = "NetworkClient";
-//    private static final String BASE_URL = "https://your-api-backend.com/v1/";
-//    private static final String TEST_BASE_URL = "https://test-api-backend.com/v1/";
-//    private static final int TIMEOUT_MS = 10000;
-//
-//    private final String publisherId;
-//    private final boolean isTestMode;
-//    private final ExecutorService executorService;
-//    private final Handler mainHandler;
-//
-//    public NetworkClient(String publisherId, boolean isTestMode) {
-//        this.publisherId = publisherId;
-//        this.isTestMode = isTestMode;
-//        this.executorService = Executors.newFixedThreadPool(3);
-//        this.mainHandler = new Handler(Looper.getMainLooper());
-//    }
-//
-//    /**
-//     * Load ad from backend
-//     */
-//    public void loadAd(String placementId, String adType, AdLoadCallback callback) {
-//        executorService.execute(() -> {
-//            try {
-//                String baseUrl = isTestMode ? TEST_BASE_URL : BASE_URL;
-//                URL url = new URL(baseUrl + "ads/load");
-//
-//                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-//                connection.setRequestMethod("POST");
-//                connection.setRequestProperty("Content-Type", "application/json");
-//                connection.setConnectTimeout(TIMEOUT_MS);
-//                connection.setReadTimeout(TIMEOUT_MS);
-//                connection.setDoOutput(true);
-//
-//                // Create request body
-//                JSONObject requestBody = new JSONObject();
-//                requestBody.put("publisherId", publisherId);
-//                requestBody.put("placementId", placementId);
-//                requestBody.put("adType", adType);
-//                requestBody.put("testMode", isTestMode);
-//
-//                // Send request
-//                OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream());
-//                writer.write(requestBody.toString());
-//                writer.flush();
-//                writer.close();
-//
-//                int responseCode = connection.getResponseCode();
-//
-//                if (responseCode == HttpURLConnection.HTTP_OK) {
-//                    // Read response
-//                    BufferedReader reader = new BufferedReader(
-//                            new InputStreamReader(connection.getInputStream()));
-//                    StringBuilder response = new StringBuilder();
-//                    String line;
-//                    while ((line = reader.readLine()) != null) {
-
-
-
 package com.example.ad_integration_sdk.network;
 
+import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import com.example.ad_integration_sdk.AdConfig;
+import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.AppStateMonitor;
+import com.example.ad_integration_sdk.utils.Constants;
 import com.example.ad_integration_sdk.utils.Logger;
 
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
 public class NetworkClient {
     private static final String TAG = "NetworkClient";
+    private static final String BASE_URL = "https://your-api-backend.com/v1/";
+    private static final String EVENT_LOG_FILE = "events.log";
+    // Latency key shared by all batch loads of one ad type
+    private static final String BATCH_PLACEMENT = "*batch*";
 
+    private final String publisherId;
     private final boolean isTestMode;
     private final Handler mainHandler;
-  // Constructor receives publisherId for future real API calls (not used here) and test mode flag
+    private final HttpTransport transport;
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
+    private final TrackingPipeline trackingPipeline;
+    private final HedgePolicy hedgePolicy = new HedgePolicy();
+    private final AdaptiveTimeouts adaptiveTimeouts = new AdaptiveTimeouts();
+    private final AdInventoryCache inventoryCache = new AdInventoryCache();
+    private final NegativeCache negativeCache = new NegativeCache();
+    private volatile boolean binaryWireFormat = true;
+    private volatile CreativeCache creativeCache;
+    private CreativeProxy creativeProxy;
+    private boolean proxyUnavailable = false;
+    // Disk and socket setup that must stay off the main thread
+    private final ExecutorService setupExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AdSDK-setup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile InventoryListener inventoryListener;
+
     public NetworkClient(String publisherId, boolean isTestMode) {
+        this(publisherId, isTestMode, new HttpTransport(BASE_URL));
+    }
+
+    // One transport (and so one connection pool) per AdSDK instance
+    NetworkClient(String publisherId, boolean isTestMode, HttpTransport transport) {
+        this.publisherId = publisherId;
         this.isTestMode = isTestMode;
         this.mainHandler = new Handler(Looper.getMainLooper());
+        this.transport = transport;
+        this.trackingPipeline = new TrackingPipeline(transport, publisherId, isTestMode);
+        AppStateMonitor.addListener(trackingPipeline);
+        inventoryCache.setStaleGraceMs(Constants.CACHE_STALE_GRACE_MS);
     }
 
-    /** Load an ad: Either static mock or real (stubbed here). */
+    /** Load an ad: Either static mock or real. */
     public void loadAd(String placementId, String adType, AdLoadCallback callback) {
+        loadAd(placementId, adType, null, callback);
+    }
+
+    /**
+     * Load an ad for a placement and size.
+     * A fresh ad from the inventory cache is returned without a network round trip;
+     * a stale one within the grace window is returned too, and a fresh one fetched
+     * behind it. A placement backing off after no-fill fails without a request.
+     * Otherwise concurrent calls for the same (placementId, adType, adSize) share one
+     * fetch and all receive its result.
+     */
+    public void loadAd(String placementId, String adType, AdSize adSize, AdLoadCallback callback) {
         Logger.d(TAG, "loadAd called (testMode=" + isTestMode + ")");
+        String sizeName = InFlightRequests.sizeName(adSize);
+        AdData cached = inventoryCache.poll(placementId, adType, sizeName);
+        if (cached != null) {
+            serveCached(placementId, adType, sizeName, InFlightRequests.requestSize(adSize), cached, callback);
+            return;
+        }
+        String negative = negativeCache.check(placementId, adType);
+        if (negative != null) {
+            Logger.d(TAG, "Backing off " + placementId + ": " + negative);
+            mainHandler.post(() -> callback.onAdFailedToLoad(negative));
+            return;
+        }
+
+        String key = InFlightRequests.key(placementId, adType, adSize);
+        if (!inFlightRequests.join(key, callback)) {
+            Logger.d(TAG, "Attached to in-flight load for " + key);
+            return;
+        }
+
+        AdLoadCallback fanOut = fanOutCallback(key, placementId, adType);
+        if (isTestMode) {
+            provideMockAd(placementId, adType, fanOut);
+        } else {
+            loadRealAd(placementId, adType, adSize, fanOut);
+        }
+    }
+
+    /**
+     * Load ads for several placements in one round trip.
+     * Results are delivered to the callback at the same index as each request.
+     * Placements with a cached ad are served from the inventory cache, and those
+     * backing off after no-fill fail without a request. Requests
+     * already in flight for the same key attach to that fetch and are left out
+     * of the batch.
+     */
+    public void loadAds(List<AdConfig.AdRequest> requests, String adType, List<AdLoadCallback> callbacks) {
+        if (requests == null || callbacks == null || requests.size() != callbacks.size()) {
+            throw new IllegalArgumentException("Each ad request needs exactly one callback");
+        }
+        Logger.d(TAG, "loadAds called for " + requests.size() + " placements (testMode=" + isTestMode + ")");
+
+        List<AdConfig.AdRequest> batch = new ArrayList<>();
+        List<AdLoadCallback> batchCallbacks = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AdConfig.AdRequest request = requests.get(i);
+            AdLoadCallback callback = callbacks.get(i);
+            if (request == null || request.getPlacementId() == null) {
+                mainHandler.post(() -> callback.onAdFailedToLoad(Constants.ERROR_INVALID_REQUEST));
+                continue;
+            }
+            String sizeName = InFlightRequests.sizeName(request.getAdSize());
+            AdData cached = inventoryCache.poll(request.getPlacementId(), adType, sizeName);
+            if (cached != null) {
+                serveCached(request.getPlacementId(), adType, sizeName, request.getAdSize(), cached, callback);
+                continue;
+            }
+            String negative = negativeCache.check(request.getPlacementId(), adType);
+            if (negative != null) {
+                mainHandler.post(() -> callback.onAdFailedToLoad(negative));
+                continue;
+            }
+            String key = InFlightRequests.key(request.getPlacementId(), adType, request.getAdSize());
+            if (inFlightRequests.join(key, callback)) {
+                batch.add(request);
+                batchCallbacks.add(fanOutCallback(key, request.getPlacementId(), adType));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (isTestMode) {
+            provideMockAds(batch, adType, batchCallbacks);
+        } else {
+            loadRealAds(batch, adType, batchCallbacks);
+        }
+    }
+
+    /**
+     * Fill the inventory cache for a placement up to its depth in one round trip.
+     * Later loadAd calls for the placement are then served from the cache.
+     */
+    public void prefetch(String placementId, String adType) {
+        refill(placementId, adType, null, null, null);
+    }
+
+    /**
+     * Prefetch as above, running onComplete on the main thread once every
+     * requested ad has loaded or failed.
+     * @return the number of ads requested; 0 if the placement is already full or
+     *         backing off after no-fill (onComplete is then not called)
+     */
+    public int prefetch(String placementId, String adType, Runnable onComplete) {
+        return refill(placementId, adType, null, null, onComplete);
+    }
+
+    /**
+     * Prefetch a banner placement at one size; only loadAd calls for that size are
+     * served from what it caches.
+     */
+    public int prefetch(String placementId, String adType, AdSize adSize, Runnable onComplete) {
+        return refill(placementId, adType, InFlightRequests.sizeName(adSize),
+                InFlightRequests.requestSize(adSize), onComplete);
+    }
+
+    private int refill(String placementId, String adType, String sizeName, AdConfig.AdSize requestSize,
+                       Runnable onComplete) {
+        if (negativeCache.check(placementId, adType) != null) {
+            return 0;
+        }
+        int count = inventoryCache.reserveRefill(placementId, adType, sizeName);
+        if (count == 0) {
+            return 0;
+        }
+        Logger.d(TAG, "Prefetching " + count + " ads for " + placementId);
+
+        // Callbacks all arrive on the main thread
+        int[] remaining = {count};
+        List<AdConfig.AdRequest> requests = new ArrayList<>();
+        List<AdLoadCallback> callbacks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(new AdConfig.AdRequest(placementId).setAdSize(requestSize));
+            callbacks.add(new AdLoadCallback() {
+                @Override
+                public void onAdLoaded(AdData adData) {
+                    negativeCache.recordFill(placementId, adType);
+                    inventoryCache.releaseRefill(placementId, adType, sizeName);
+                    inventoryCache.offer(placementId, adType, sizeName, adData);
+                    cacheCreatives(adData);
+                    finish();
+                }
+
+                @Override
+                public void onAdFailedToLoad(String error) {
+                    negativeCache.recordFailure(placementId, adType, error);
+                    inventoryCache.releaseRefill(placementId, adType, sizeName);
+                    finish();
+                }
+
+                private void finish() {
+                    if (--remaining[0] == 0 && onComplete != null) onComplete.run();
+                }
+            });
+        }
+
+        // Several ads for the same placement on purpose, so this bypasses load coalescing
         if (isTestMode) {
-            provideMockAd(placementId, adType, callback);
+            provideMockAds(requests, adType, callbacks);
         } else {
-            loadRealAd(placementId, adType, callback);
+            loadRealAds(requests, adType, callbacks);
+        }
+        return count;
+    }
+
+    /**
+     * Serve an ad from the inventory cache. A stale ad is still shown, and a fresh one
+     * fetched in the background for the next load (stale-while-revalidate).
+     */
+    private void serveCached(String placementId, String adType, String sizeName, AdConfig.AdSize requestSize,
+                             AdData cached, AdLoadCallback callback) {
+        if (inventoryCache.isStale(cached)) {
+            Logger.d(TAG, "Serving stale " + placementId + " from inventory cache, revalidating");
+            refill(placementId, adType, sizeName, requestSize, null);
+        } else {
+            Logger.d(TAG, "Serving " + placementId + " from inventory cache");
+        }
+        mainHandler.post(() -> callback.onAdLoaded(cached));
+
+        InventoryListener listener = inventoryListener;
+        if (listener != null) {
+            mainHandler.post(() -> listener.onInventoryTaken(placementId, adType));
+        }
+    }
+
+    /**
+     * Callback that completes an in-flight entry and fans the result out to every waiter.
+     * No-fill and invalid-placement results start the placement's backoff.
+     */
+    private AdLoadCallback fanOutCallback(String key, String placementId, String adType) {
+        return new AdLoadCallback() {
+            @Override
+            public void onAdLoaded(AdData adData) {
+                negativeCache.recordFill(placementId, adType);
+                cacheCreatives(adData);
+                inFlightRequests.completeLoaded(key, adData);
+            }
+
+            @Override
+            public void onAdFailedToLoad(String error) {
+                negativeCache.recordFailure(placementId, adType, error);
+                inFlightRequests.completeFailed(key, error);
+            }
+        };
+    }
+
+    /** Start downloading a loaded ad's video so it plays from disk when shown. */
+    private void cacheCreatives(AdData adData) {
+        CreativeCache cache = creativeCache;
+        if (cache != null && adData != null && adData.hasVideo()) {
+            cache.prefetch(adData.getVideoUrl());
         }
     }
 
@@ -195,16 +297,483 @@ public class NetworkClient {
         }, 500);
     }
 
-    /** Stub: Real network logic goes here if testMode is false. */
-    private void loadRealAd(String placementId, String adType, AdLoadCallback callback) {
-        // Stubbed: immediately fail for now
-        callback.onAdFailedToLoad("Real API call not implemented");
+    /** Provide a batch of mock ads with a single simulated network delay. */
+    private void provideMockAds(List<AdConfig.AdRequest> requests, String adType, List<AdLoadCallback> callbacks) {
+        mainHandler.postDelayed(() -> {
+            List<String> placementIds = new ArrayList<>();
+            for (AdConfig.AdRequest request : requests) {
+                placementIds.add(request.getPlacementId());
+            }
+            try {
+                deliverBatch(MockAdFactory.createBatch(adType, placementIds), callbacks);
+            } catch (Exception e) {
+                for (AdLoadCallback callback : callbacks) {
+                    callback.onAdFailedToLoad("Mock error: " + e.getMessage());
+                }
+            }
+        }, 500);
     }
 
-    /** Tracking stub: Always succeeds immediately. */
+    /** Load a batch of ads from the backend in one request. */
+    private void loadRealAds(List<AdConfig.AdRequest> requests, String adType, List<AdLoadCallback> callbacks) {
+        String body;
+        try {
+            JSONArray placements = new JSONArray();
+            for (AdConfig.AdRequest request : requests) {
+                JSONObject placement = new JSONObject();
+                placement.put("placementId", request.getPlacementId());
+                if (request.getAdSize() != null) placement.put("adSize", request.getAdSize().name());
+                if (request.getKeywords() != null) placement.put("keywords", request.getKeywords());
+                if (request.getUserId() != null) placement.put("userId", request.getUserId());
+                if (request.getContentUrl() != null) placement.put("contentUrl", request.getContentUrl());
+                placements.put(placement);
+            }
+
+            JSONObject requestBody = new JSONObject();
+            requestBody.put("publisherId", publisherId);
+            requestBody.put("adType", adType);
+            requestBody.put("testMode", isTestMode);
+            requestBody.put("placements", placements);
+            body = requestBody.toString();
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to build batch ad request", e);
+            mainHandler.post(() -> failAll(callbacks, Constants.ERROR_INVALID_REQUEST));
+            return;
+        }
+
+        HttpTransport.Timeouts timeouts = adaptiveTimeouts.timeoutsFor(BATCH_PLACEMENT, adType);
+        postLoad("ads/batch", body, timeouts, new HttpTransport.ResponseCallback() {
+            @Override
+            public void onResponse(Response response) throws Exception {
+                adaptiveTimeouts.record(BATCH_PLACEMENT, adType, attemptLatency(response));
+                // Applies to every placement in the batch, so they all back off
+                String negative = negativeError(response);
+                if (negative != null) {
+                    mainHandler.post(() -> failAll(callbacks, negative));
+                    return;
+                }
+                if (!response.isSuccessful()) {
+                    String error = "HTTP Error: " + response.code();
+                    Logger.e(TAG, error);
+                    mainHandler.post(() -> failAll(callbacks, error));
+                    return;
+                }
+                List<AdData> ads = parseBatch(response, requests.size());
+                mainHandler.post(() -> deliverBatch(ads, callbacks));
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Logger.e(TAG, "Failed to load ad batch: " + error);
+                mainHandler.post(() -> failAll(callbacks, error));
+            }
+
+            @Override
+            public void onAttemptTimedOut(long elapsedMs) {
+                adaptiveTimeouts.record(BATCH_PLACEMENT, adType, elapsedMs);
+            }
+        });
+    }
+
+    /**
+     * Fan batch results out by index; a missing entry is a no-fill for that placement,
+     * and an entry with nothing to show fails it as a single load would.
+     */
+    private void deliverBatch(List<AdData> ads, List<AdLoadCallback> callbacks) {
+        for (int i = 0; i < callbacks.size(); i++) {
+            AdData adData = i < ads.size() ? ads.get(i) : null;
+            if (adData == null) {
+                callbacks.get(i).onAdFailedToLoad(Constants.ERROR_NO_ADS);
+            } else if (adData.isValid()) {
+                callbacks.get(i).onAdLoaded(adData);
+            } else {
+                callbacks.get(i).onAdFailedToLoad("Invalid ad data");
+            }
+        }
+    }
+
+    private void failAll(List<AdLoadCallback> callbacks, String error) {
+        for (AdLoadCallback callback : callbacks) {
+            callback.onAdFailedToLoad(error);
+        }
+    }
+
+    /**
+     * Load an ad from the backend over the shared pooled transport.
+     * With hedging on, a second identical request is sent if the first has not
+     * answered by the hedge delay; the first good AdData wins and the other is canceled.
+     */
+    private void loadRealAd(String placementId, String adType, AdSize adSize, AdLoadCallback callback) {
+        String body;
+        try {
+            JSONObject requestBody = new JSONObject();
+            requestBody.put("publisherId", publisherId);
+            requestBody.put("placementId", placementId);
+            requestBody.put("adType", adType);
+            requestBody.put("testMode", isTestMode);
+            // Loads are coalesced and cached per size, so the backend must see it too
+            String wireSize = wireSize(adSize);
+            if (wireSize != null) requestBody.put("adSize", wireSize);
+            body = requestBody.toString();
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to build ad request", e);
+            callback.onAdFailedToLoad("Invalid ad request");
+            return;
+        }
+
+        LoadRace race = new LoadRace(callback);
+        hedgePolicy.onPrimaryRequest();
+        sendLoad(placementId, adType, body, race);
+
+        long hedgeDelay = hedgePolicy.getHedgeDelayMs();
+        if (hedgeDelay >= 0) {
+            Runnable hedge = () -> {
+                if (race.isPending() && hedgePolicy.tryAcquireHedge()) {
+                    Logger.d(TAG, "Hedging load for " + placementId + " after " + hedgeDelay + "ms");
+                    sendLoad(placementId, adType, body, race);
+                }
+            };
+            race.setHedgeTimer(hedge);
+            mainHandler.postDelayed(hedge, hedgeDelay);
+        }
+    }
+
+    private void sendLoad(String placementId, String adType, String body, LoadRace race) {
+        HttpTransport.Timeouts timeouts = adaptiveTimeouts.timeoutsFor(placementId, adType);
+        race.begin();
+        HttpTransport.Handle handle = postLoad("ads/load", body, timeouts, new HttpTransport.ResponseCallback() {
+            @Override
+            public void onResponse(Response response) throws Exception {
+                long latency = attemptLatency(response);
+                adaptiveTimeouts.record(placementId, adType, latency);
+                String negative = negativeError(response);
+                if (negative != null) {
+                    race.fail(negative);
+                    return;
+                }
+                if (!response.isSuccessful()) {
+                    String error = "HTTP Error: " + response.code();
+                    Logger.e(TAG, error);
+                    race.fail(error);
+                    return;
+                }
+                AdData adData = parseAd(response);
+                hedgePolicy.recordLatency(latency);
+                if (adData.isValid()) {
+                    race.win(adData);
+                } else {
+                    race.fail("Invalid ad data");
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Logger.e(TAG, "Failed to load ad: " + error);
+                race.fail(error);
+            }
+
+            // A timed-out attempt is at least as slow as its deadline; count it so deadlines can grow
+            @Override
+            public void onAttemptTimedOut(long elapsedMs) {
+                adaptiveTimeouts.record(placementId, adType, elapsedMs);
+            }
+        });
+        race.track(handle);
+    }
+
+    /** POST a load request, offering the binary response format when enabled. */
+    private HttpTransport.Handle postLoad(String path, String body, HttpTransport.Timeouts timeouts,
+                                          HttpTransport.ResponseCallback callback) {
+        Request request = new Request.Builder()
+                .url(transport.resolve(path))
+                .header("Accept", binaryWireFormat ? AdDataCodec.acceptHeader() : "application/json")
+                .post(RequestBody.create(body, HttpTransport.JSON))
+                .build();
+        return transport.enqueue(request, timeouts, callback);
+    }
+
+    // The size as a batch placement sends it; sizes without a batch equivalent send their own name
+    private static String wireSize(AdSize adSize) {
+        AdConfig.AdSize requestSize = InFlightRequests.requestSize(adSize);
+        return requestSize != null ? requestSize.name() : InFlightRequests.sizeName(adSize);
+    }
+
+    // Answers the backend gives for an empty or unknown placement, or null for any other
+    private static String negativeError(Response response) {
+        if (response.code() == 204) return Constants.ERROR_NO_ADS;
+        if (response.code() == 404) return Constants.ERROR_INVALID_PLACEMENT;
+        return null;
+    }
+
+    // Time from sending the request to its response headers, for the attempt that answered
+    // only; retries and their backoff are not part of it
+    private static long attemptLatency(Response response) {
+        return Math.max(0, response.receivedResponseAtMillis() - response.sentRequestAtMillis());
+    }
+
+    // The backend answers in whichever format it supports; decode by Content-Type
+    private static AdData parseAd(Response response) {
+        if (AdDataCodec.isBinary(response.body().contentType())) {
+            return AdDataCodec.decodeAdResponse(response.body().byteStream());
+        }
+        return AdParser.parseAdResponse(response.body().byteStream());
+    }
+
+    private static List<AdData> parseBatch(Response response, int expectedCount) {
+        if (AdDataCodec.isBinary(response.body().contentType())) {
+            return AdDataCodec.decodeBatchResponse(response.body().byteStream(), expectedCount);
+        }
+        return AdParser.parseBatchResponse(response.body().byteStream(), expectedCount);
+    }
+
+    /** Outstanding attempts for one ad load. Exactly one result reaches the caller. */
+    private class LoadRace {
+        private final AdLoadCallback callback;
+        private final List<HttpTransport.Handle> handles = new ArrayList<>();
+        private Runnable hedgeTimer;
+        private int outstanding = 0;
+        private boolean done = false;
+
+        LoadRace(AdLoadCallback callback) {
+            this.callback = callback;
+        }
+
+        synchronized void begin() {
+            outstanding++;
+        }
+
+        synchronized void track(HttpTransport.Handle handle) {
+            if (done) {
+                handle.cancel();
+            } else {
+                handles.add(handle);
+            }
+        }
+
+        synchronized void setHedgeTimer(Runnable hedgeTimer) {
+            this.hedgeTimer = hedgeTimer;
+        }
+
+        synchronized boolean isPending() {
+            return !done;
+        }
+
+        void win(AdData adData) {
+            synchronized (this) {
+                if (done) return;
+                finish();
+            }
+            mainHandler.post(() -> callback.onAdLoaded(adData));
+        }
+
+        /** A failed attempt only fails the load once no other attempt can still win. */
+        void fail(String error) {
+            synchronized (this) {
+                if (done) return;
+                outstanding--;
+                if (outstanding > 0) return;
+                finish();
+            }
+            mainHandler.post(() -> callback.onAdFailedToLoad(error));
+        }
+
+        private void finish() {
+            done = true;
+            if (hedgeTimer != null) mainHandler.removeCallbacks(hedgeTimer);
+            for (HttpTransport.Handle handle : handles) {
+                handle.cancel();
+            }
+            handles.clear();
+        }
+    }
+
+    /**
+     * Track ad events (impression, click, etc.).
+     * Events are buffered and sent in compressed batches; the callback fires once
+     * the batch carrying this event has been delivered (or has failed).
+     */
     public void trackEvent(String adId, String eventType, TrackingCallback callback) {
         Logger.d(TAG, "trackEvent called for adId=" + adId + " event=" + eventType);
-        mainHandler.post(callback::onTrackingSuccess);
+        trackingPipeline.enqueue(adId, eventType, callback);
+    }
+
+    /**
+     * Persist tracking events to a crash-safe log under the given directory and
+     * replay any events a previous process logged but never delivered.
+     * The log is opened in the background; events tracked before it is attached are
+     * sent as usual but not logged.
+     */
+    public void enableDurableTracking(File directory) {
+        setupExecutor.execute(() -> {
+            try {
+                EventLog log = EventLog.open(new File(directory, EVENT_LOG_FILE), EventLog.DEFAULT_CAPACITY_BYTES);
+                trackingPipeline.attachEventLog(log);
+            } catch (IOException e) {
+                Logger.e(TAG, "Durable tracking unavailable", e);
+            }
+        });
+    }
+
+    /**
+     * Download video creatives into a bounded LRU cache under the given directory
+     * when ads load, so playback reads a local file instead of streaming.
+     */
+    public void enableCreativeCache(File directory) {
+        CreativeCache cache = new CreativeCache(directory, CreativeCache.DEFAULT_MAX_BYTES, transport);
+        creativeCache = cache;
+        // Binding the proxy socket is I/O; until it is up, partial downloads stream from the URL
+        setupExecutor.execute(() -> startCreativeProxy(cache));
+    }
+
+    /** Video creative cache, or null if it was never enabled. */
+    public CreativeCache getCreativeCache() {
+        return creativeCache;
+    }
+
+    /**
+     * Where the player should read a video creative from: the local file once fully
+     * cached, the loopback proxy while it is still downloading (so the bytes are only
+     * fetched once), or the remote URL when neither is available.
+     */
+    public String resolveVideoUrl(String videoUrl) {
+        CreativeCache cache = creativeCache;
+        if (cache == null || videoUrl == null) {
+            return videoUrl;
+        }
+        File file = cache.getCachedFile(videoUrl);
+        if (file != null) {
+            return Uri.fromFile(file).toString();
+        }
+        CreativeProxy proxy = getCreativeProxy();
+        return proxy != null ? proxy.urlFor(videoUrl) : videoUrl;
+    }
+
+    /**
+     * Whether a URI from {@link #resolveVideoUrl} is read on the device (the cached file,
+     * the loopback proxy, or a bundled resource) rather than from the remote URL.
+     */
+    public static boolean isLocalPlaybackUri(String playbackUri) {
+        if (playbackUri == null) return false;
+        Uri uri = Uri.parse(playbackUri);
+        String scheme = uri.getScheme();
+        if ("http".equals(scheme)) {
+            return CreativeProxy.LOOPBACK_HOST.equals(uri.getHost());
+        }
+        return "file".equals(scheme) || "content".equals(scheme) || "android.resource".equals(scheme);
+    }
+
+    private synchronized CreativeProxy getCreativeProxy() {
+        return creativeProxy;
+    }
+
+    private void startCreativeProxy(CreativeCache cache) {
+        synchronized (this) {
+            if (creativeProxy != null || proxyUnavailable) return;
+        }
+        if (!CreativeProxy.isCleartextPermitted()) {
+            Logger.w(TAG, "Cleartext to " + CreativeProxy.LOOPBACK_HOST
+                    + " is blocked by the network security config; partially cached videos will stream");
+            synchronized (this) {
+                proxyUnavailable = true;
+            }
+            return;
+        }
+        CreativeProxy proxy = new CreativeProxy(cache);
+        boolean started = proxy.start();
+        synchronized (this) {
+            if (started) {
+                creativeProxy = proxy;
+            } else {
+                proxyUnavailable = true;
+            }
+        }
+    }
+
+    /** Send any buffered tracking events now. */
+    public void flushEvents() {
+        trackingPipeline.flush();
+    }
+
+    /**
+     * Configure when buffered tracking events are flushed.
+     * @param maxBatchSize Flush as soon as this many events are buffered
+     * @param maxBatchAgeMs Flush once the oldest buffered event is this old
+     */
+    public void setTrackingBatchPolicy(int maxBatchSize, long maxBatchAgeMs) {
+        trackingPipeline.setBatchPolicy(maxBatchSize, maxBatchAgeMs);
+    }
+
+    /** Number of tracking events handed to the backend so far. */
+    public long getTrackedEventCount() {
+        return trackingPipeline.getEventsSent();
+    }
+
+    /** Number of tracking requests (batches) sent so far. */
+    public long getTrackingRequestCount() {
+        return trackingPipeline.getBatchesSent();
+    }
+
+    /** Shared transport, exposed for connection-pool monitoring. */
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Opt in to hedged ad loads.
+     * @param enabled Whether slow loads may be hedged
+     * @param percentile Latency percentile (e.g. 0.95) of recent loads after which to hedge
+     * @param maxHedgeRatio Upper bound on hedged requests as a share of primary requests
+     */
+    public void setHedging(boolean enabled, double percentile, double maxHedgeRatio) {
+        hedgePolicy.configure(enabled, percentile, maxHedgeRatio);
+    }
+
+    /** Enable or disable hedged ad loads with the default percentile and rate cap. */
+    public void setHedgingEnabled(boolean enabled) {
+        setHedging(enabled, HedgePolicy.DEFAULT_PERCENTILE, HedgePolicy.DEFAULT_MAX_HEDGE_RATIO);
+    }
+
+    /** Number of hedged (duplicate) ad requests sent so far. */
+    public long getHedgedRequestCount() {
+        return hedgePolicy.getHedgeCount();
+    }
+
+    /** Connect/read deadlines the next load of this placement will use. */
+    public HttpTransport.Timeouts getLoadTimeouts(String placementId, String adType) {
+        return adaptiveTimeouts.timeoutsFor(placementId, adType);
+    }
+
+    /**
+     * Offer the compact binary response format to the backend (on by default).
+     * Responses are decoded by Content-Type, so JSON still works either way.
+     */
+    public void setBinaryWireFormatEnabled(boolean enabled) {
+        binaryWireFormat = enabled;
+    }
+
+    /** Be told, on the main thread, whenever a load takes an ad from the inventory cache. */
+    public void setInventoryListener(InventoryListener listener) {
+        this.inventoryListener = listener;
+    }
+
+    /** Ready-ad inventory, for tuning per-placement depth and reading hit/miss/eviction counters. */
+    public AdInventoryCache getInventoryCache() {
+        return inventoryCache;
+    }
+
+    /** Placements backing off after no-fill or invalid-placement answers. */
+    public NegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    /** Number of loadAd calls served by attaching to an in-flight fetch. */
+    public long getCoalescedLoadCount() {
+        return inFlightRequests.getCoalescedCount();
+    }
+
+    /** Listener for ads leaving the inventory cache. */
+    public interface InventoryListener {
+        void onInventoryTaken(String placementId, String adType);
     }
 
     /** Callback interface for ad loading. */
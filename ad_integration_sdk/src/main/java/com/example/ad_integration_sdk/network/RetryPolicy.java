@@ -0,0 +1,42 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter.
+ * The delay before retry n is uniformly random in [0, min(maxDelay, baseDelay * 2^n)].
+ */
+class RetryPolicy {
+
+    private static final long DEFAULT_MAX_DELAY_MS = 30000;
+
+    final int maxRetries;
+    final long baseDelayMs;
+    final long maxDelayMs;
+
+    RetryPolicy(int maxRetries, long baseDelayMs, long maxDelayMs) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+
+    static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(Constants.MAX_RETRY_COUNT, Constants.RETRY_DELAY_MS, DEFAULT_MAX_DELAY_MS);
+    }
+
+    /** Backoff before the given retry (0 = first retry). */
+    long delayForRetry(int retry) {
+        long ceiling = baseDelayMs << Math.min(retry, 20);
+        if (ceiling <= 0 || ceiling > maxDelayMs) {
+            ceiling = maxDelayMs;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /** Timeouts, throttling and server errors are worth retrying; other statuses are final. */
+    static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+}
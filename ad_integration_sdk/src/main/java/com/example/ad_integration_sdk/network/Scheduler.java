@@ -0,0 +1,37 @@
+package com.example.ad_integration_sdk.network;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on one thread, now or after a delay, so main-thread timing can be tested
+ * without a looper.
+ */
+interface Scheduler extends Executor {
+
+    void executeDelayed(Runnable task, long delayMs);
+
+    void cancel(Runnable task);
+
+    static Scheduler mainThread() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return new Scheduler() {
+            @Override
+            public void execute(Runnable task) {
+                handler.post(task);
+            }
+
+            @Override
+            public void executeDelayed(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        };
+    }
+}
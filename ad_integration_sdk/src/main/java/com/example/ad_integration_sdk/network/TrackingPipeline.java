@@ -0,0 +1,264 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.AppStateMonitor;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Buffers tracking events and sends them as one gzip-compressed batch.
+ * A batch is flushed when it reaches the size limit, when its oldest event
+ * reaches the age limit, or when the app goes to the background. In test mode
+ * nothing is sent and every event is acknowledged as soon as it is enqueued.
+ * Every event still gets exactly one TrackingCallback on the main thread.
+ * Each event carries an id that stays the same across transport retries and crash
+ * replays, so the server can drop duplicates.
+ */
+class TrackingPipeline implements AppStateMonitor.Listener {
+    private static final String TAG = "TrackingPipeline";
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 20;
+    static final long DEFAULT_MAX_BATCH_AGE_MS = 15000;
+
+    private final HttpTransport transport;
+    private final String publisherId;
+    private final boolean isTestMode;
+    // Delivers TrackingCallbacks and times the age flush; the main thread outside tests
+    private final Scheduler mainThread;
+    private final ExecutorService encodeExecutor;
+    private final Runnable ageFlush = this::flush;
+
+    private final List<TrackedEvent> buffer = new ArrayList<>();
+    private EventLog eventLog;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private long maxBatchAgeMs = DEFAULT_MAX_BATCH_AGE_MS;
+
+    // Stats
+    private long eventsSent = 0;
+    private long batchesSent = 0;
+
+    TrackingPipeline(HttpTransport transport, String publisherId, boolean isTestMode) {
+        this(transport, publisherId, isTestMode, Scheduler.mainThread());
+    }
+
+    TrackingPipeline(HttpTransport transport, String publisherId, boolean isTestMode, Scheduler mainThread) {
+        this.transport = transport;
+        this.publisherId = publisherId;
+        this.isTestMode = isTestMode;
+        this.mainThread = mainThread;
+        this.encodeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AdSDK-tracking");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    synchronized void setBatchPolicy(int maxBatchSize, long maxBatchAgeMs) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxBatchAgeMs = Math.max(0, maxBatchAgeMs);
+    }
+
+    /**
+     * Write every event to a durable log before buffering it, and replay events
+     * the previous process logged but never delivered.
+     */
+    void attachEventLog(EventLog log) {
+        List<EventLog.LoggedEvent> recovered;
+        synchronized (this) {
+            eventLog = log;
+            recovered = log.takeRecovered();
+        }
+        for (EventLog.LoggedEvent logged : recovered) {
+            add(new TrackedEvent(eventId(log, logged.sequence), logged.adId, logged.eventType,
+                    logged.timestamp, null, logged.sequence));
+        }
+    }
+
+    /** Buffer an event; flushes immediately once the batch is full. */
+    void enqueue(String adId, String eventType, NetworkClient.TrackingCallback callback) {
+        long timestamp = System.currentTimeMillis();
+        EventLog log;
+        synchronized (this) {
+            log = eventLog;
+        }
+        long sequence = log != null ? log.append(adId, eventType, timestamp) : -1;
+        add(new TrackedEvent(eventId(log, sequence), adId, eventType, timestamp, callback, sequence));
+    }
+
+    // The log's install id and sequence for logged events; events that never reach the
+    // log are not replayed, so a random id covers their retries
+    private static String eventId(EventLog log, long sequence) {
+        if (log != null && sequence >= 0) return log.getInstallId() + "-" + sequence;
+        return UUID.randomUUID().toString();
+    }
+
+    private void add(TrackedEvent event) {
+        boolean first;
+        boolean full;
+        long ageLimit;
+        synchronized (this) {
+            buffer.add(event);
+            first = buffer.size() == 1;
+            // Nothing is sent in test mode, so there is nothing to batch
+            full = isTestMode || buffer.size() >= maxBatchSize;
+            ageLimit = maxBatchAgeMs;
+        }
+
+        if (full) {
+            flush();
+        } else if (first) {
+            mainThread.executeDelayed(ageFlush, ageLimit);
+        }
+    }
+
+    /** Send everything buffered so far as one batch. */
+    void flush() {
+        List<TrackedEvent> batch;
+        synchronized (this) {
+            if (buffer.isEmpty()) return;
+            mainThread.cancel(ageFlush);
+            batch = new ArrayList<>(buffer);
+            buffer.clear();
+            eventsSent += batch.size();
+            batchesSent++;
+        }
+
+        Logger.d(TAG, "Flushing " + batch.size() + " tracking events");
+        if (isTestMode) {
+            mainThread.execute(() -> deliverSuccess(batch));
+            return;
+        }
+        encodeExecutor.execute(() -> send(batch));
+    }
+
+    @Override
+    public void onAppForeground() {}
+
+    @Override
+    public void onAppBackground() {
+        flush();
+    }
+
+    synchronized long getEventsSent() {
+        return eventsSent;
+    }
+
+    synchronized long getBatchesSent() {
+        return batchesSent;
+    }
+
+    private void send(List<TrackedEvent> batch) {
+        byte[] body;
+        try {
+            body = gzip(encode(batch));
+        } catch (Exception e) {
+            Logger.e(TAG, "Failed to encode tracking batch", e);
+            mainThread.execute(() -> deliverFailure(batch, "Invalid tracking batch"));
+            return;
+        }
+
+        // The same key on every retry of this batch lets the server apply it once
+        Request request = new Request.Builder()
+                .url(transport.resolve("ads/track/batch"))
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .header("Content-Encoding", "gzip")
+                .post(RequestBody.create(body, HttpTransport.JSON))
+                .build();
+
+        transport.enqueue(request, new HttpTransport.ResponseCallback() {
+            @Override
+            public void onResponse(Response response) {
+                if (response.isSuccessful()) {
+                    mainThread.execute(() -> deliverSuccess(batch));
+                } else {
+                    String error = "HTTP Error: " + response.code();
+                    mainThread.execute(() -> deliverFailure(batch, error));
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                mainThread.execute(() -> deliverFailure(batch, error));
+            }
+        });
+    }
+
+    private String encode(List<TrackedEvent> batch) throws Exception {
+        JSONArray events = new JSONArray();
+        for (TrackedEvent event : batch) {
+            JSONObject json = new JSONObject();
+            json.put("eventId", event.eventId);
+            json.put("adId", event.adId);
+            json.put("eventType", event.eventType);
+            json.put("timestamp", event.timestamp);
+            events.put(json);
+        }
+
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("publisherId", publisherId);
+        requestBody.put("events", events);
+        return requestBody.toString();
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private void deliverSuccess(List<TrackedEvent> batch) {
+        EventLog log;
+        synchronized (this) {
+            log = eventLog;
+        }
+        for (TrackedEvent event : batch) {
+            if (log != null && event.logSequence >= 0) log.ack(event.logSequence);
+            if (event.callback != null) event.callback.onTrackingSuccess();
+        }
+    }
+
+    // Failed events stay pending in the event log and are replayed on the next launch
+    private void deliverFailure(List<TrackedEvent> batch, String error) {
+        Logger.w(TAG, "Tracking batch of " + batch.size() + " failed: " + error);
+        for (TrackedEvent event : batch) {
+            if (event.callback != null) event.callback.onTrackingFailed(error);
+        }
+    }
+
+    /** A buffered tracking event and the caller waiting on it. */
+    static class TrackedEvent {
+        final String eventId;
+        final String adId;
+        final String eventType;
+        final long timestamp;
+        final NetworkClient.TrackingCallback callback;
+        final long logSequence;
+
+        TrackedEvent(String eventId, String adId, String eventType, long timestamp,
+                     NetworkClient.TrackingCallback callback, long logSequence) {
+            this.eventId = eventId;
+            this.adId = adId;
+            this.eventType = eventType;
+            this.timestamp = timestamp;
+            this.callback = callback;
+            this.logSequence = logSequence;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.ad_integration_sdk.ui;
 
 import android.content.Context;
 import android.graphics.Color;
+import android.graphics.Rect;
 import android.graphics.drawable.GradientDrawable;
 import android.util.DisplayMetrics;
 import android.view.View;
@@ -104,6 +105,22 @@ public class AdViewUtils {
                 .start();
     }
 
+    /**
+     * Fraction (0..1) of a view's area that is on screen.
+     * 0 when the view is detached, not shown or its window is hidden.
+     * @param outRect Scratch rect, so per-frame callers do not allocate
+     */
+    public static float getVisibleFraction(View view, Rect outRect) {
+        if (!view.isAttachedToWindow() || !view.isShown() || view.getWindowVisibility() != View.VISIBLE) {
+            return 0f;
+        }
+        long area = (long) view.getWidth() * view.getHeight();
+        if (area == 0 || !view.getGlobalVisibleRect(outRect)) {
+            return 0f;
+        }
+        return Math.min(1f, (float) ((long) outRect.width() * outRect.height()) / area);
+    }
+
     /**
      * Check if color is dark
      */
@@ -0,0 +1,200 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Banner renderer that draws every state in one view: the loading spinner, the
+ * "Ad Unavailable" message, and the creative with its "Ad" label. It matches
+ * banner_ad_layout without the nested containers, so a state change is one
+ * invalidate and a layout pass measures a single view. Paints and rects are set up
+ * ahead of time, so onDraw does not allocate.
+ */
+public class FlatBannerView extends View {
+
+    public static final int STATE_LOADING = 0;
+    public static final int STATE_ERROR = 1;
+    public static final int STATE_CONTENT = 2;
+
+    private static final int LOADING_BACKGROUND = Color.parseColor("#F5F5F5");
+    private static final int ERROR_BACKGROUND = Color.parseColor("#FAFAFA");
+    private static final int CONTENT_BACKGROUND = Color.WHITE;
+    private static final int SPINNER_COLOR = Color.parseColor("#1E88E5");
+    private static final int ERROR_TEXT_COLOR = Color.parseColor("#9E9E9E");
+    private static final int LABEL_BACKGROUND = Color.parseColor("#CC000000");
+    private static final String ERROR_TEXT = "Ad Unavailable";
+    private static final long SPINNER_PERIOD_MS = 1000;
+
+    private final Paint spinnerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint errorTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint labelBackgroundPaint = new Paint();
+    private final Paint labelTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private final RectF spinnerRect = new RectF();
+    private final Rect bitmapSrc = new Rect();
+    private final Rect bitmapDst = new Rect();
+    private final Rect labelRect = new Rect();
+
+    private final float spinnerSize;
+    private final int labelMargin;
+    private final int labelPaddingH;
+    private final int labelPaddingV;
+
+    private int state = STATE_LOADING;
+    private Bitmap creative;
+    private String label = "Ad";
+    private float labelBaseline;
+    private float errorBaseline;
+
+    public FlatBannerView(Context context) {
+        super(context);
+
+        spinnerSize = dp(28);
+        labelMargin = Math.round(dp(4));
+        labelPaddingH = Math.round(dp(6));
+        labelPaddingV = Math.round(dp(2));
+
+        spinnerPaint.setColor(SPINNER_COLOR);
+        spinnerPaint.setStyle(Paint.Style.STROKE);
+        spinnerPaint.setStrokeWidth(dp(3));
+        spinnerPaint.setStrokeCap(Paint.Cap.ROUND);
+
+        errorTextPaint.setColor(ERROR_TEXT_COLOR);
+        errorTextPaint.setTextSize(sp(12));
+        errorTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        labelBackgroundPaint.setColor(LABEL_BACKGROUND);
+        labelTextPaint.setColor(Color.WHITE);
+        labelTextPaint.setTextSize(sp(8));
+        labelTextPaint.setTypeface(Typeface.DEFAULT_BOLD);
+
+        setContentDescription("Ad Image");
+    }
+
+    public void showLoading() {
+        setState(STATE_LOADING);
+    }
+
+    public void showError() {
+        setState(STATE_ERROR);
+    }
+
+    /** Show a creative, ideally already decoded at this view's size. */
+    public void showContent(Bitmap bitmap) {
+        creative = bitmap;
+        computeBitmapRects();
+        setState(STATE_CONTENT);
+        invalidate();
+    }
+
+    /** Drop the creative, e.g. before its bitmap is handed back to Glide. */
+    public void clearContent() {
+        creative = null;
+        if (state == STATE_CONTENT) invalidate();
+    }
+
+    public void setLabel(String label) {
+        this.label = label != null ? label : "";
+        computeLabelRect();
+        invalidate();
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    private void setState(int newState) {
+        if (state == newState) return;
+        state = newState;
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        float half = spinnerSize / 2;
+        spinnerRect.set(w / 2f - half, h / 2f - half, w / 2f + half, h / 2f + half);
+        Paint.FontMetrics metrics = errorTextPaint.getFontMetrics();
+        errorBaseline = h / 2f - (metrics.ascent + metrics.descent) / 2;
+        computeBitmapRects();
+        computeLabelRect();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        switch (state) {
+            case STATE_LOADING:
+                canvas.drawColor(LOADING_BACKGROUND);
+                // Indeterminate arc; keeps animating only while loading
+                long phase = getDrawingTime() % SPINNER_PERIOD_MS;
+                float start = 360f * phase / SPINNER_PERIOD_MS;
+                canvas.drawArc(spinnerRect, start, 270f, false, spinnerPaint);
+                postInvalidateOnAnimation();
+                break;
+
+            case STATE_ERROR:
+                canvas.drawColor(ERROR_BACKGROUND);
+                canvas.drawText(ERROR_TEXT, getWidth() / 2f, errorBaseline, errorTextPaint);
+                break;
+
+            default:
+                canvas.drawColor(CONTENT_BACKGROUND);
+                if (creative != null && !creative.isRecycled()) {
+                    canvas.drawBitmap(creative, bitmapSrc, bitmapDst, bitmapPaint);
+                }
+                if (!label.isEmpty()) {
+                    canvas.drawRect(labelRect, labelBackgroundPaint);
+                    canvas.drawText(label, labelRect.left + labelPaddingH, labelBaseline, labelTextPaint);
+                }
+                break;
+        }
+    }
+
+    // Centre-crop, like scaleType="centerCrop"
+    private void computeBitmapRects() {
+        int w = getWidth();
+        int h = getHeight();
+        bitmapDst.set(0, 0, w, h);
+        if (creative == null || w == 0 || h == 0) return;
+
+        int bw = creative.getWidth();
+        int bh = creative.getHeight();
+        if ((long) bw * h > (long) bh * w) {
+            int srcWidth = (int) ((long) bh * w / h);
+            int left = (bw - srcWidth) / 2;
+            bitmapSrc.set(left, 0, left + srcWidth, bh);
+        } else {
+            int srcHeight = (int) ((long) bw * h / w);
+            int top = (bh - srcHeight) / 2;
+            bitmapSrc.set(0, top, bw, top + srcHeight);
+        }
+    }
+
+    // Top-end corner, like the label TextView
+    private void computeLabelRect() {
+        Paint.FontMetrics metrics = labelTextPaint.getFontMetrics();
+        int textWidth = Math.round(labelTextPaint.measureText(label));
+        int textHeight = Math.round(metrics.descent - metrics.ascent);
+        int right = getWidth() - labelMargin;
+        int top = labelMargin;
+        labelRect.set(right - textWidth - 2 * labelPaddingH, top, right, top + textHeight + 2 * labelPaddingV);
+        labelBaseline = top + labelPaddingV - metrics.ascent;
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+
+    private float sp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getResources().getDisplayMetrics());
+    }
+}
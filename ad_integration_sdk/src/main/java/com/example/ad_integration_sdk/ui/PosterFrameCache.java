@@ -0,0 +1,215 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.LruCache;
+
+import com.example.ad_integration_sdk.network.CreativeCache;
+import com.example.ad_integration_sdk.network.NetworkClient;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First frames of video creatives, shown while the video buffers.
+ * A frame is extracted once with MediaMetadataRetriever, downscaled, and kept in memory
+ * and as a JPEG on disk, keyed by the creative URL. Extraction reads only local
+ * sources, the cached file or the loopback proxy while it downloads, on a background
+ * thread; a creative played straight from its URL gets no poster rather than a second
+ * download. Each load answers within EXTRACT_TIMEOUT_MS; a frame that arrives later
+ * is still kept for the next show. Callbacks run on the main thread.
+ */
+public class PosterFrameCache {
+    private static final String TAG = "PosterFrameCache";
+
+    private static final int MEMORY_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_FILES = 32;
+    private static final int JPEG_QUALITY = 80;
+    private static final String SUFFIX = ".jpg";
+    // The proxy can stall on a slow host; callers stop waiting and queued work is dropped
+    private static final long EXTRACT_TIMEOUT_MS = 5000;
+    private static final int MAX_EXTRACTIONS = 2;
+
+    public interface Callback {
+        /** The poster, or null if no frame could be extracted. */
+        void onPoster(Bitmap poster);
+    }
+
+    private final Context context;
+    private final File directory;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor executor;
+    private final LruCache<String, Bitmap> memory = new LruCache<String, Bitmap>(MEMORY_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+    // Key -> callbacks waiting on an extraction in progress
+    private final Map<String, List<Callback>> pending = new HashMap<>();
+
+    public PosterFrameCache(Context context, File directory) {
+        this.context = context.getApplicationContext();
+        this.directory = directory;
+        this.executor = new ThreadPoolExecutor(MAX_EXTRACTIONS, MAX_EXTRACTIONS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "AdSDK-posters");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** The poster for a creative if it is in memory. */
+    public Bitmap get(String videoUrl) {
+        return videoUrl != null ? memory.get(CreativeCache.keyFor(videoUrl)) : null;
+    }
+
+    /**
+     * Fetch the poster for a creative, extracting it from {@code playbackUri} if it is
+     * not cached and the URI is local. The frame is scaled to fit within maxWidth x maxHeight.
+     */
+    public void load(String videoUrl, String playbackUri, int maxWidth, int maxHeight, Callback callback) {
+        if (videoUrl == null || playbackUri == null) {
+            callback.onPoster(null);
+            return;
+        }
+        String key = CreativeCache.keyFor(videoUrl);
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            callback.onPoster(cached);
+            return;
+        }
+
+        synchronized (pending) {
+            List<Callback> waiting = pending.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            pending.put(key, waiting);
+        }
+
+        long deadline = SystemClock.uptimeMillis() + EXTRACT_TIMEOUT_MS;
+        Runnable timeout = () -> deliver(key, null);
+        mainHandler.postAtTime(timeout, deadline);
+        executor.execute(() -> {
+            Bitmap poster = readFile(key);
+            if (poster == null && NetworkClient.isLocalPlaybackUri(playbackUri)
+                    && SystemClock.uptimeMillis() < deadline) {
+                poster = extract(playbackUri, Math.max(1, maxWidth), Math.max(1, maxHeight));
+                if (poster != null) writeFile(key, poster);
+            }
+            Bitmap result = poster;
+            mainHandler.post(() -> {
+                mainHandler.removeCallbacks(timeout);
+                deliver(key, result);
+            });
+        });
+    }
+
+
+    private void deliver(String key, Bitmap poster) {
+        if (poster != null) memory.put(key, poster);
+        List<Callback> waiting;
+        synchronized (pending) {
+            waiting = pending.remove(key);
+        }
+        if (waiting == null) return;
+        for (Callback callback : waiting) {
+            callback.onPoster(poster);
+        }
+    }
+
+    private Bitmap extract(String playbackUri, int maxWidth, int maxHeight) {
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            Uri uri = Uri.parse(playbackUri);
+            if ("http".equals(uri.getScheme())) {
+                retriever.setDataSource(playbackUri, new HashMap<>());
+            } else {
+                retriever.setDataSource(context, uri);
+            }
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+                return retriever.getScaledFrameAtTime(0, MediaMetadataRetriever.OPTION_CLOSEST_SYNC, maxWidth, maxHeight);
+            }
+            return scaleToFit(retriever.getFrameAtTime(0, MediaMetadataRetriever.OPTION_CLOSEST_SYNC), maxWidth, maxHeight);
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to extract poster frame: " + e.getMessage());
+            return null;
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception ignored) {
+                // Nothing left to free
+            }
+        }
+    }
+
+    private static Bitmap scaleToFit(Bitmap frame, int maxWidth, int maxHeight) {
+        if (frame == null) return null;
+        float scale = Math.min((float) maxWidth / frame.getWidth(), (float) maxHeight / frame.getHeight());
+        if (scale >= 1f) return frame;
+        Bitmap scaled = Bitmap.createScaledBitmap(frame,
+                Math.max(1, Math.round(frame.getWidth() * scale)),
+                Math.max(1, Math.round(frame.getHeight() * scale)), true);
+        if (scaled != frame) frame.recycle();
+        return scaled;
+    }
+
+    private Bitmap readFile(String key) {
+        File file = new File(directory, key + SUFFIX);
+        if (!file.exists()) return null;
+        Bitmap poster = BitmapFactory.decodeFile(file.getPath());
+        if (poster != null) file.setLastModified(System.currentTimeMillis());
+        return poster;
+    }
+
+    private void writeFile(String key, Bitmap poster) {
+        if (!directory.exists() && !directory.mkdirs()) return;
+        File file = new File(directory, key + SUFFIX);
+        File temp = new File(directory, key + SUFFIX + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            poster.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to write poster frame: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        trim();
+    }
+
+    // Keep the MAX_FILES most recently used posters
+    private void trim() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length <= MAX_FILES) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - MAX_FILES; i++) {
+            files[i].delete();
+        }
+    }
+}
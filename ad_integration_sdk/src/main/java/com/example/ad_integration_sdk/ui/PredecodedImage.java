@@ -0,0 +1,99 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+/**
+ * An ad image fetched and decoded before the ad is shown.
+ * The bitmap is decoded at the size of the view it will fill, centre-cropped the way
+ * the ad layouts scale it, so showing the ad is a setImageBitmap with no decode or
+ * rescale on the main thread. Glide owns the bitmap; clear() hands it back to the pool.
+ * Call from the main thread.
+ */
+public class PredecodedImage {
+
+    public interface Callback {
+        void onReady(PredecodedImage image);
+        void onFailed(String error);
+    }
+
+    private final Context context;
+    private final CustomTarget<Bitmap> target;
+    private Bitmap bitmap;
+
+    private PredecodedImage(Context context, int widthPx, int heightPx, Callback callback) {
+        this.context = context;
+        this.target = new CustomTarget<Bitmap>(Math.max(1, widthPx), Math.max(1, heightPx)) {
+            @Override
+            public void onResourceReady(@NonNull Bitmap resource, @Nullable Transition<? super Bitmap> transition) {
+                bitmap = resource;
+                callback.onReady(PredecodedImage.this);
+            }
+
+            @Override
+            public void onLoadFailed(@Nullable Drawable errorDrawable) {
+                callback.onFailed("Image decode failed");
+            }
+
+            @Override
+            public void onLoadCleared(@Nullable Drawable placeholder) {
+                // Glide reclaimed the bitmap (e.g. the activity was destroyed)
+                bitmap = null;
+            }
+        };
+    }
+
+    /**
+     * Start fetching and decoding an image at the given size.
+     * The callback may run before this returns when the image is already in memory.
+     */
+    public static PredecodedImage load(Context context, String uri, int widthPx, int heightPx, Callback callback) {
+        PredecodedImage image = new PredecodedImage(context, widthPx, heightPx, callback);
+        Glide.with(context)
+                .asBitmap()
+                .load(uri)
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .centerCrop()
+                .into(image.target);
+        return image;
+    }
+
+    public boolean isReady() {
+        return bitmap != null && !bitmap.isRecycled();
+    }
+
+    /** The decoded bitmap, or null if it is not ready or has been released. */
+    public Bitmap getBitmap() {
+        return isReady() ? bitmap : null;
+    }
+
+    /**
+     * Show the decoded bitmap in a view.
+     * @return false if the image is not ready, in which case the view is untouched
+     */
+    public boolean applyTo(ImageView view) {
+        if (!isReady()) return false;
+        view.setImageBitmap(bitmap);
+        return true;
+    }
+
+    /** Release the bitmap. Views showing it must be cleared or hidden first. */
+    public void clear() {
+        bitmap = null;
+        try {
+            Glide.with(context).clear(target);
+        } catch (IllegalArgumentException e) {
+            // Activity already destroyed; Glide cleared the request with it
+        }
+    }
+}
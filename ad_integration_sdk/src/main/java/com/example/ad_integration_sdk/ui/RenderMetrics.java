@@ -0,0 +1,105 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.example.ad_integration_sdk.network.LatencyTracker;
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Show-to-pixels latency per ad type: the time from show() (or a banner swapping in
+ * its content) to the first frame drawn with the creative in it. Video ads also
+ * report show-to-first-video-frame, when the player renders its first frame.
+ * Timestamps are SystemClock.uptimeMillis().
+ */
+public class RenderMetrics {
+    private static final String TAG = "RenderMetrics";
+
+    private final Map<String, LatencyTracker> showToPixels = new HashMap<>();
+    private final Map<String, LatencyTracker> showToFirstFrame = new HashMap<>();
+
+    /** Record the latency when the view next draws. */
+    public void trackFirstDraw(View view, String adType, long startedAt) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                // The observer may have been merged into the window's on attach
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                record(adType, SystemClock.uptimeMillis() - startedAt);
+                return true;
+            }
+        });
+    }
+
+    /** Glide listener that starts {@link #trackFirstDraw} once the image is ready. */
+    public RequestListener<Drawable> trackWhenLoaded(View view, String adType, long startedAt) {
+        return new RequestListener<Drawable>() {
+            @Override
+            public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                                        Target<Drawable> target, boolean isFirstResource) {
+                return false;
+            }
+
+            @Override
+            public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                           DataSource dataSource, boolean isFirstResource) {
+                trackFirstDraw(view, adType, startedAt);
+                return false;
+            }
+        };
+    }
+
+    public void record(String adType, long latencyMs) {
+        tracker(showToPixels, adType).record(latencyMs);
+        Logger.d(TAG, adType + " show-to-pixels " + latencyMs + "ms");
+    }
+
+    /**
+     * Show-to-pixels latency at the given percentile (0..1) for an ad type.
+     * @return the percentile in ms, or -1 if nothing has been shown
+     */
+    public long getShowToPixelsPercentile(String adType, double percentile) {
+        return tracker(showToPixels, adType).percentile(percentile);
+    }
+
+    public int getSampleCount(String adType) {
+        return tracker(showToPixels, adType).getSampleCount();
+    }
+
+    public void recordFirstVideoFrame(String adType, long latencyMs) {
+        tracker(showToFirstFrame, adType).record(latencyMs);
+        Logger.d(TAG, adType + " show-to-first-video-frame " + latencyMs + "ms");
+    }
+
+    /**
+     * Show-to-first-video-frame latency at the given percentile (0..1) for an ad type.
+     * @return the percentile in ms, or -1 if no video has started
+     */
+    public long getShowToFirstFramePercentile(String adType, double percentile) {
+        return tracker(showToFirstFrame, adType).percentile(percentile);
+    }
+
+    public int getFirstFrameSampleCount(String adType) {
+        return tracker(showToFirstFrame, adType).getSampleCount();
+    }
+
+    private synchronized LatencyTracker tracker(Map<String, LatencyTracker> trackers, String adType) {
+        LatencyTracker tracker = trackers.get(adType);
+        if (tracker == null) {
+            tracker = new LatencyTracker(LatencyTracker.DEFAULT_WINDOW);
+            trackers.put(adType, tracker);
+        }
+        return tracker;
+    }
+}
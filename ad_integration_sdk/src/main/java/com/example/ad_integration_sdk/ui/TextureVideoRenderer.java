@@ -0,0 +1,246 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.content.Context;
+import android.graphics.Matrix;
+import android.graphics.SurfaceTexture;
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.view.Surface;
+import android.view.TextureView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.example.ad_integration_sdk.utils.Logger;
+
+/**
+ * Video renderer built on one MediaPlayer and one TextureView that are reused for every
+ * show. The player is reset, not rebuilt, between videos, and the TextureView keeps its
+ * SurfaceTexture when a dialog is dismissed, so the next show re-parents the view with
+ * the surface already bound to the player. Because the surface survives, a video
+ * prepared for a later show decodes its first frame before it is on screen. The view
+ * stays transparent until the new video's first frame arrives, so the previous ad's
+ * last frame never shows.
+ *
+ * MediaPlayer has no buffer-size control; play creatives from the CreativeCache (see
+ * NetworkClient.resolveVideoUrl) so prepare() reads from disk or the loopback proxy.
+ */
+public class TextureVideoRenderer implements VideoRenderer, TextureView.SurfaceTextureListener,
+        MediaPlayer.OnPreparedListener, MediaPlayer.OnInfoListener, MediaPlayer.OnCompletionListener,
+        MediaPlayer.OnErrorListener, MediaPlayer.OnVideoSizeChangedListener {
+
+    private static final String TAG = "TextureVideoRenderer";
+
+    private final Context context;
+    private final TextureView textureView;
+    private final Matrix transform = new Matrix();
+    private MediaPlayer player;
+    private SurfaceTexture surfaceTexture;
+    private Surface surface;
+    private Listener listener;
+
+    // Current source; null when the player is idle
+    private String uri;
+    private boolean prepared = false;
+    private boolean startRequested = false;
+    private boolean started = false;
+    private boolean attached = false;
+    private boolean released = false;
+
+    public TextureVideoRenderer(Context context) {
+        this.context = context.getApplicationContext();
+        this.textureView = new TextureView(context);
+        textureView.setSurfaceTextureListener(this);
+    }
+
+    @Override
+    public void prepare(String uri, boolean looping) {
+        if (released || uri == null) return;
+        if (uri.equals(this.uri)) {
+            player.setLooping(looping);
+            return;
+        }
+
+        if (player == null) {
+            player = new MediaPlayer();
+            player.setOnPreparedListener(this);
+            player.setOnInfoListener(this);
+            player.setOnCompletionListener(this);
+            player.setOnErrorListener(this);
+            player.setOnVideoSizeChangedListener(this);
+        } else {
+            player.reset();
+        }
+        prepared = false;
+        started = false;
+        textureView.setAlpha(0f);
+
+        try {
+            player.setDataSource(context, Uri.parse(uri));
+            if (surface != null) player.setSurface(surface);
+            player.setLooping(looping);
+            player.prepareAsync();
+            this.uri = uri;
+        } catch (Exception e) {
+            Logger.w(TAG, "Failed to prepare video: " + e.getMessage());
+            player.reset();
+            this.uri = null;
+            if (listener != null) listener.onError(MediaPlayer.MEDIA_ERROR_UNKNOWN, 0);
+        }
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void attach(View slot) {
+        if (released) return;
+        ViewGroup parent = (ViewGroup) slot.getParent();
+        if (textureView.getParent() instanceof ViewGroup) {
+            ((ViewGroup) textureView.getParent()).removeView(textureView);
+        }
+        // Hand the kept surface back before the view attaches, so it is reused, not recreated
+        if (surfaceTexture != null && textureView.getSurfaceTexture() != surfaceTexture) {
+            textureView.setSurfaceTexture(surfaceTexture);
+        }
+        slot.setVisibility(View.GONE);
+        parent.addView(textureView, parent.indexOfChild(slot), slot.getLayoutParams());
+        attached = true;
+    }
+
+    @Override
+    public boolean isAttached() {
+        return attached;
+    }
+
+    @Override
+    public void start() {
+        startRequested = true;
+        maybeStart();
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return started ? player.getCurrentPosition() : 0;
+    }
+
+    @Override
+    public void stop() {
+        attached = false;
+        startRequested = false;
+        started = false;
+        prepared = false;
+        uri = null;
+        listener = null;
+        if (player != null) player.reset();
+        if (textureView.getParent() instanceof ViewGroup) {
+            ((ViewGroup) textureView.getParent()).removeView(textureView);
+        }
+    }
+
+    @Override
+    public void release() {
+        stop();
+        released = true;
+        if (player != null) {
+            player.release();
+            player = null;
+        }
+        if (surface != null) {
+            surface.release();
+            surface = null;
+        }
+        if (surfaceTexture != null) {
+            surfaceTexture.release();
+            surfaceTexture = null;
+        }
+    }
+
+    private void maybeStart() {
+        if (!startRequested || !prepared || surface == null || started) return;
+        player.start();
+        started = true;
+        if (listener != null) listener.onStarted(player.getDuration());
+    }
+
+    // Letterbox like VideoView; a TextureView otherwise stretches to fill
+    private void fitVideo() {
+        if (player == null || !prepared) return;
+        int videoWidth = player.getVideoWidth();
+        int videoHeight = player.getVideoHeight();
+        int viewWidth = textureView.getWidth();
+        int viewHeight = textureView.getHeight();
+        if (videoWidth <= 0 || videoHeight <= 0 || viewWidth <= 0 || viewHeight <= 0) return;
+
+        float scale = Math.min((float) viewWidth / videoWidth, (float) viewHeight / videoHeight);
+        transform.setScale(videoWidth * scale / viewWidth, videoHeight * scale / viewHeight,
+                viewWidth / 2f, viewHeight / 2f);
+        textureView.setTransform(transform);
+    }
+
+    // TextureView.SurfaceTextureListener
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture texture, int width, int height) {
+        surfaceTexture = texture;
+        surface = new Surface(texture);
+        if (player != null && uri != null) player.setSurface(surface);
+        fitVideo();
+        maybeStart();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture texture, int width, int height) {
+        fitVideo();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture texture) {
+        // Keep the surface for the next show; release() frees it
+        return false;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture texture) {
+    }
+
+    // MediaPlayer listeners
+
+    @Override
+    public void onPrepared(MediaPlayer mp) {
+        prepared = true;
+        fitVideo();
+        maybeStart();
+    }
+
+    @Override
+    public boolean onInfo(MediaPlayer mp, int what, int extra) {
+        if (what == MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START) {
+            textureView.setAlpha(1f);
+            if (listener != null) listener.onFirstFrame();
+        }
+        return false;
+    }
+
+    @Override
+    public void onCompletion(MediaPlayer mp) {
+        if (listener != null) listener.onCompletion();
+    }
+
+    @Override
+    public boolean onError(MediaPlayer mp, int what, int extra) {
+        Logger.e(TAG, "Video error: " + what + ", " + extra);
+        // Reset on the next prepare()
+        prepared = false;
+        started = false;
+        uri = null;
+        if (listener != null) listener.onError(what, extra);
+        return true;
+    }
+
+    @Override
+    public void onVideoSizeChanged(MediaPlayer mp, int width, int height) {
+        fitVideo();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.WindowManager;
+
+/**
+ * Plays a fullscreen ad's video into the layout's video slot.
+ * A renderer outlives a single show: prepare() may run while the ad loads, before any
+ * view exists, and one renderer can serve consecutive shows (and both fullscreen
+ * formats) of an Activity. Main thread only.
+ */
+public interface VideoRenderer {
+
+    interface Listener {
+        /** Playback started; called once per prepare(). */
+        void onStarted(int durationMs);
+        void onFirstFrame();
+        void onCompletion();
+        /** The renderer is unusable for this source; show something else. */
+        void onError(int what, int extra);
+    }
+
+    /**
+     * Start buffering a video. Preparing the source that is already loaded or loading
+     * is a no-op, so call it again at show time.
+     */
+    void prepare(String uri, boolean looping);
+
+    void setListener(Listener listener);
+
+    /**
+     * Render into the layout in place of {@code slot} (the layout's VideoView), with the
+     * same layout params.
+     */
+    void attach(View slot);
+
+    /** True from attach() until stop(), while a show is using the renderer. */
+    boolean isAttached();
+
+    /** Play as soon as the video is prepared and the surface is ready. */
+    void start();
+
+    /** Playback position in ms, 0 before start. */
+    int getCurrentPosition();
+
+    /** End of a show: stop playback and leave the layout, keeping resources for the next show. */
+    void stop();
+
+    /** Free the player and surface. The renderer cannot be used again. */
+    void release();
+
+    /**
+     * The SurfaceTexture renderer when the Activity's windows are hardware accelerated,
+     * which TextureView needs, otherwise the VideoView fallback.
+     */
+    static VideoRenderer create(Activity activity) {
+        int flags = activity.getWindow().getAttributes().flags;
+        if ((flags & WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED) != 0) {
+            return new TextureVideoRenderer(activity);
+        }
+        return new VideoViewRenderer();
+    }
+}
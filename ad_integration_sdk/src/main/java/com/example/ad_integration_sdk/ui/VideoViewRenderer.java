@@ -0,0 +1,105 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.media.MediaPlayer;
+import android.net.Uri;
+import android.view.View;
+import android.widget.VideoView;
+
+/**
+ * Fallback renderer that plays through the layout's own VideoView, for windows without
+ * hardware acceleration. VideoView owns its player and surface, so nothing is
+ * preloaded or reused: prepare() before attach() only remembers the source.
+ */
+public class VideoViewRenderer implements VideoRenderer {
+
+    private VideoView videoView;
+    private Listener listener;
+    private String uri;
+    private boolean looping = false;
+    // Source set on the attached view
+    private String loadedUri;
+    private boolean started = false;
+
+    @Override
+    public void prepare(String uri, boolean looping) {
+        this.uri = uri;
+        this.looping = looping;
+        load();
+    }
+
+    @Override
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void attach(View slot) {
+        videoView = (VideoView) slot;
+        videoView.setVisibility(View.VISIBLE);
+        videoView.setMediaController(null);
+        videoView.setOnPreparedListener(mp -> {
+            mp.setLooping(looping);
+            if (!started) {
+                started = true;
+                if (listener != null) listener.onStarted(mp.getDuration());
+            }
+        });
+        videoView.setOnInfoListener((mp, what, extra) -> {
+            if (what == MediaPlayer.MEDIA_INFO_VIDEO_RENDERING_START && listener != null) {
+                listener.onFirstFrame();
+            }
+            return false;
+        });
+        videoView.setOnCompletionListener(mp -> {
+            if (listener != null) listener.onCompletion();
+        });
+        videoView.setOnErrorListener((mp, what, extra) -> {
+            if (listener != null) listener.onError(what, extra);
+            return true;
+        });
+        loadedUri = null;
+        started = false;
+        load();
+    }
+
+    @Override
+    public boolean isAttached() {
+        return videoView != null;
+    }
+
+    @Override
+    public void start() {
+        // VideoView starts once prepared
+        if (videoView != null) videoView.start();
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return videoView != null && started ? videoView.getCurrentPosition() : 0;
+    }
+
+    @Override
+    public void stop() {
+        if (videoView != null) {
+            videoView.stopPlayback();
+            videoView = null;
+        }
+        listener = null;
+        uri = null;
+        loadedUri = null;
+        started = false;
+    }
+
+    @Override
+    public void release() {
+        stop();
+    }
+
+    private void load() {
+        if (videoView == null || uri == null || uri.equals(loadedUri)) return;
+        loadedUri = uri;
+        started = false;
+        videoView.setVideoURI(Uri.parse(uri));
+        videoView.requestFocus();
+    }
+}
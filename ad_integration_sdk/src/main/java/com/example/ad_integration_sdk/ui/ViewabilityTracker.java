@@ -0,0 +1,139 @@
+package com.example.ad_integration_sdk.ui;
+
+import android.graphics.Rect;
+import android.view.Choreographer;
+import android.view.View;
+
+import com.example.ad_integration_sdk.utils.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * One viewability engine per window.
+ * Registered ad views are sampled from a single Choreographer frame callback instead
+ * of a listener per view. A view becomes viewable once at least half of it has been
+ * on screen for one continuous second; its listener then fires once and the view is
+ * dropped. At most {@link #MAX_SAMPLES_PER_FRAME} views are measured per frame, in
+ * rotation, so the per-frame cost stays flat however many ads are registered. The
+ * callback only runs while something is registered. Main thread only.
+ */
+public class ViewabilityTracker implements Choreographer.FrameCallback {
+    private static final String TAG = "ViewabilityTracker";
+
+    public static final float MIN_VISIBLE_FRACTION = 0.5f;
+    public static final long MIN_VISIBLE_MS = 1000;
+    static final int MAX_SAMPLES_PER_FRAME = 8;
+
+    // Keyed on each window's root view
+    private static final WeakHashMap<View, ViewabilityTracker> trackers = new WeakHashMap<>();
+
+    public interface Listener {
+        void onViewable(View view);
+    }
+
+    private final View root;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Rect visibleRect = new Rect();
+    private int cursor = 0;
+    private boolean frameScheduled = false;
+
+    private ViewabilityTracker(View root) {
+        this.root = root;
+    }
+
+    /**
+     * Start watching an attached view; the listener fires once when it becomes viewable.
+     * Registering a view again replaces its listener and restarts its timer.
+     */
+    public static void register(View view, Listener listener) {
+        if (!view.isAttachedToWindow()) {
+            Logger.w(TAG, "View must be attached to track viewability");
+            return;
+        }
+        unregister(view);
+        View root = view.getRootView();
+        ViewabilityTracker tracker = trackers.get(root);
+        if (tracker == null) {
+            tracker = new ViewabilityTracker(root);
+            trackers.put(root, tracker);
+        }
+        tracker.add(new Entry(view, listener));
+    }
+
+    /** Stop watching a view, e.g. when it is detached or shows a different ad. */
+    public static void unregister(View view) {
+        for (ViewabilityTracker tracker : trackers.values()) {
+            if (tracker.remove(view)) return;
+        }
+    }
+
+    private void add(Entry entry) {
+        entries.add(entry);
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private boolean remove(View view) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).view == view) {
+                removeAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeAt(int index) {
+        entries.remove(index);
+        if (cursor > index) cursor--;
+        if (entries.isEmpty()) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameScheduled = false;
+            trackers.remove(root);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        long now = frameTimeNanos / 1_000_000;
+
+        int samples = Math.min(MAX_SAMPLES_PER_FRAME, entries.size());
+        for (int i = 0; i < samples && !entries.isEmpty(); i++) {
+            if (cursor >= entries.size()) cursor = 0;
+            Entry entry = entries.get(cursor);
+
+            if (AdViewUtils.getVisibleFraction(entry.view, visibleRect) < MIN_VISIBLE_FRACTION) {
+                entry.visibleSince = -1;
+            } else if (entry.visibleSince < 0) {
+                entry.visibleSince = now;
+            } else if (now - entry.visibleSince >= MIN_VISIBLE_MS) {
+                removeAt(cursor);
+                entry.listener.onViewable(entry.view);
+                continue;
+            }
+            cursor++;
+        }
+
+        if (!entries.isEmpty() && !frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private static class Entry {
+        final View view;
+        final Listener listener;
+        // Frame time the view was first seen viewable in its current stretch, or -1
+        long visibleSince = -1;
+
+        Entry(View view, Listener listener) {
+            this.view = view;
+            this.listener = listener;
+        }
+    }
+}
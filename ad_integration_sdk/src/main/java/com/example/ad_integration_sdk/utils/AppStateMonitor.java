@@ -0,0 +1,121 @@
+package com.example.ad_integration_sdk.utils;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks whether the host app is in the foreground
+ * Counts started activities and notifies listeners on foreground/background transitions
+ * Safe to query and to add or remove listeners from any thread
+ */
+public class AppStateMonitor {
+    private static final String TAG = "AppStateMonitor";
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static boolean registered = false;
+    // Guarded by AppStateMonitor.class; inForeground is also read without the lock
+    private static int startedActivities = 0;
+    private static volatile boolean inForeground = true;
+
+    /**
+     * Listener for app foreground/background transitions
+     */
+    public interface Listener {
+        void onAppForeground();
+        void onAppBackground();
+    }
+
+    /**
+     * Initialize the monitor
+     * @param context Any context; the application is used for lifecycle callbacks
+     */
+    public static synchronized void init(Context context) {
+        if (registered) return;
+
+        Context appContext = context.getApplicationContext();
+        if (!(appContext instanceof Application)) {
+            Logger.w(TAG, "Application context unavailable, app state will not be tracked");
+            return;
+        }
+
+        ((Application) appContext).registerActivityLifecycleCallbacks(new LifecycleCallbacks());
+        registered = true;
+    }
+
+    /**
+     * Check if the app is currently in the foreground
+     */
+    public static boolean isInForeground() {
+        return inForeground;
+    }
+
+    /**
+     * Register a transition listener
+     */
+    public static void addListener(Listener listener) {
+        if (listener != null) {
+            listeners.addIfAbsent(listener);
+        }
+    }
+
+    /**
+     * Unregister a transition listener
+     */
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static class LifecycleCallbacks implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityStarted(Activity activity) {
+            boolean changed;
+            synchronized (AppStateMonitor.class) {
+                startedActivities++;
+                changed = !inForeground;
+                inForeground = true;
+            }
+            // Listeners are called outside the lock
+            if (changed) {
+                Logger.d(TAG, "App moved to foreground");
+                for (Listener listener : listeners) {
+                    listener.onAppForeground();
+                }
+            }
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            boolean changed;
+            synchronized (AppStateMonitor.class) {
+                startedActivities = Math.max(0, startedActivities - 1);
+                changed = startedActivities == 0 && inForeground && !activity.isChangingConfigurations();
+                if (changed) inForeground = false;
+            }
+            if (changed) {
+                Logger.d(TAG, "App moved to background");
+                for (Listener listener : listeners) {
+                    listener.onAppBackground();
+                }
+            }
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+        @Override
+        public void onActivityResumed(Activity activity) {}
+
+        @Override
+        public void onActivityPaused(Activity activity) {}
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {}
+    }
+}
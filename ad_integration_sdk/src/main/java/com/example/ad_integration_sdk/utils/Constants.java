@@ -27,6 +27,7 @@ public class Constants {
     // Cache Configuration
     public static final int CACHE_MAX_SIZE_MB = 50;
     public static final long CACHE_MAX_AGE_MS = 24 * 60 * 60 * 1000; // 24 hours
+    public static final long CACHE_STALE_GRACE_MS = 5 * 60 * 1000; // served while a fresh ad loads
 
     // Animation Durations
     public static final int ANIMATION_DURATION_SHORT = 150;
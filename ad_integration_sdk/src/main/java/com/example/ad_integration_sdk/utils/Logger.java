@@ -5,9 +5,11 @@ import android.util.Log;
 /**
  * Logger utility for the SDK
  * Provides centralized logging with SDK prefix
+ * Off Android (JVM unit tests) messages go to System.err, since android.util.Log is only a stub there
  */
 public class Logger {
     private static final String SDK_TAG = "AdIntegrationSDK";
+    private static final boolean ON_ANDROID = "Dalvik".equals(System.getProperty("java.vm.name"));
     private static boolean debugEnabled = true;
 
     /**
@@ -29,7 +31,7 @@ public class Logger {
      */
     public static void d(String tag, String message) {
         if (debugEnabled) {
-            Log.d(SDK_TAG + "_" + tag, message);
+            log("D", tag, message, null);
         }
     }
 
@@ -38,7 +40,7 @@ public class Logger {
      */
     public static void i(String tag, String message) {
         if (debugEnabled) {
-            Log.i(SDK_TAG + "_" + tag, message);
+            log("I", tag, message, null);
         }
     }
 
@@ -47,7 +49,7 @@ public class Logger {
      */
     public static void w(String tag, String message) {
         if (debugEnabled) {
-            Log.w(SDK_TAG + "_" + tag, message);
+            log("W", tag, message, null);
         }
     }
 
@@ -55,14 +57,14 @@ public class Logger {
      * Log error message
      */
     public static void e(String tag, String message) {
-        Log.e(SDK_TAG + "_" + tag, message);
+        log("E", tag, message, null);
     }
 
     /**
      * Log error message with throwable
      */
     public static void e(String tag, String message, Throwable throwable) {
-        Log.e(SDK_TAG + "_" + tag, message, throwable);
+        log("E", tag, message, throwable);
     }
 
     /**
@@ -70,7 +72,33 @@ public class Logger {
      */
     public static void v(String tag, String message) {
         if (debugEnabled) {
-            Log.v(SDK_TAG + "_" + tag, message);
+            log("V", tag, message, null);
+        }
+    }
+
+    private static void log(String level, String tag, String message, Throwable throwable) {
+        String fullTag = SDK_TAG + "_" + tag;
+        if (!ON_ANDROID) {
+            System.err.println(level + "/" + fullTag + ": " + message);
+            if (throwable != null) throwable.printStackTrace();
+            return;
+        }
+        switch (level) {
+            case "D":
+                Log.d(fullTag, message);
+                break;
+            case "I":
+                Log.i(fullTag, message);
+                break;
+            case "W":
+                Log.w(fullTag, message);
+                break;
+            case "V":
+                Log.v(fullTag, message);
+                break;
+            default:
+                Log.e(fullTag, message, throwable);
+                break;
         }
     }
 }
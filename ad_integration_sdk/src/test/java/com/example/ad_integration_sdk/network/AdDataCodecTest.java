@@ -0,0 +1,276 @@
+package com.example.ad_integration_sdk.network;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import okhttp3.MediaType;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip fuzz test for the binary ad codec, plus size and decode-speed
+ * comparisons against the JSON path on single-ad and 50-ad responses.
+ */
+public class AdDataCodecTest {
+
+    private static final long SEED = 0x5EEDL;
+    private static final int FUZZ_ROUNDS = 2000;
+    private static final int BATCH_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 5000;
+
+    @Test
+    public void roundTrip_randomAds() {
+        Random random = new Random(SEED);
+        for (int round = 0; round < FUZZ_ROUNDS; round++) {
+            int count = random.nextInt(8);
+            List<AdData> ads = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                ads.add(random.nextInt(5) == 0 ? null : randomAd(random));
+            }
+
+            byte[] encoded = AdDataCodec.encodeBatchResponse(ads);
+            List<AdData> decoded = AdDataCodec.decodeBatchResponse(new ByteArrayInputStream(encoded), count);
+            assertEquals(count, decoded.size());
+            for (int i = 0; i < count; i++) {
+                if (ads.get(i) == null) {
+                    assertNull("round " + round + " entry " + i, decoded.get(i));
+                } else {
+                    assertSameAd(ads.get(i), decoded.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void corruptInput_failsCleanly() {
+        Random random = new Random(SEED);
+        for (int round = 0; round < FUZZ_ROUNDS; round++) {
+            List<AdData> ads = Arrays.asList(randomAd(random), null, randomAd(random));
+            byte[] encoded = AdDataCodec.encodeBatchResponse(ads);
+
+            byte[] corrupt;
+            if (random.nextBoolean()) {
+                corrupt = Arrays.copyOf(encoded, random.nextInt(encoded.length));
+            } else {
+                corrupt = encoded.clone();
+                for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                    corrupt[random.nextInt(corrupt.length)] = (byte) random.nextInt(256);
+                }
+            }
+
+            // Either decodes to something or fails with the parser's RuntimeException; never anything else
+            try {
+                AdDataCodec.decodeBatchResponse(new ByteArrayInputStream(corrupt), ads.size());
+            } catch (RuntimeException expected) {
+                assertTrue(expected.getMessage().startsWith("Invalid"));
+            }
+        }
+    }
+
+    @Test
+    public void incompleteEntry_isNoFillForItsPlacementOnly() {
+        AdData incomplete = new AdData();
+        incomplete.setAdId("no_click_url");
+        incomplete.setTitle("title");
+        AdData first = randomAd(new Random(SEED));
+        AdData last = randomAd(new Random(SEED + 1));
+
+        byte[] encoded = AdDataCodec.encodeBatchResponse(Arrays.asList(first, incomplete, last));
+        List<AdData> decoded = AdDataCodec.decodeBatchResponse(new ByteArrayInputStream(encoded), 3);
+        assertSameAd(first, decoded.get(0));
+        assertNull(decoded.get(1));
+        assertSameAd(last, decoded.get(2));
+
+        // A single-ad response has nothing else to serve, so it is still rejected
+        try {
+            AdDataCodec.decodeAdResponse(new ByteArrayInputStream(AdDataCodec.encodeAdResponse(incomplete)));
+            fail("Expected incomplete ad to be rejected");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getMessage().startsWith("Invalid"));
+        }
+    }
+
+    @Test
+    public void negativeStringLength_isADecodeError() {
+        // One entry holding an ad id whose length varint decodes to -1
+        byte[] encoded = {
+                (byte) AdDataCodec.SCHEMA_VERSION, 1, 1, 11, 3,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01
+        };
+        try {
+            AdDataCodec.decodeBatchResponse(new ByteArrayInputStream(encoded), 1);
+            fail("Expected negative length to be rejected");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void errorAndVersionHandling() {
+        try {
+            AdDataCodec.decodeAdResponse(new ByteArrayInputStream(AdDataCodec.encodeErrorResponse("no fill")));
+            fail("Expected error response to be rejected");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getCause().getMessage().contains("no fill"));
+        }
+
+        byte[] encoded = AdDataCodec.encodeAdResponse(randomAd(new Random(SEED)));
+        encoded[0] = (byte) (AdDataCodec.SCHEMA_VERSION + 1);
+        try {
+            AdDataCodec.decodeAdResponse(new ByteArrayInputStream(encoded));
+            fail("Expected unknown schema version to be rejected");
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getCause().getMessage().contains("schema version"));
+        }
+
+        assertTrue(AdDataCodec.isBinary(MediaType.get(AdDataCodec.MEDIA_TYPE + "; v=1")));
+        assertFalse(AdDataCodec.isBinary(MediaType.get("application/json; charset=utf-8")));
+        assertFalse(AdDataCodec.isBinary(null));
+    }
+
+    @Test
+    public void benchmark_againstJson() throws Exception {
+        Random random = new Random(SEED);
+        List<AdData> ads = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ads.add(typicalAd(i, random));
+        }
+
+        byte[] singleJson = toJson(ads.subList(0, 1), false);
+        byte[] singleBinary = AdDataCodec.encodeAdResponse(ads.get(0));
+        byte[] batchJson = toJson(ads, true);
+        byte[] batchBinary = AdDataCodec.encodeBatchResponse(ads);
+
+        double singleJsonUs = measure(() -> AdParser.parseAdResponse(new ByteArrayInputStream(singleJson)));
+        double singleBinaryUs = measure(() -> AdDataCodec.decodeAdResponse(new ByteArrayInputStream(singleBinary)));
+        double batchJsonUs = measure(() -> AdParser.parseBatchResponse(new ByteArrayInputStream(batchJson), BATCH_SIZE));
+        double batchBinaryUs = measure(() -> AdDataCodec.decodeBatchResponse(new ByteArrayInputStream(batchBinary), BATCH_SIZE));
+
+        System.out.printf("AdDataCodec single ad: json %d B %.1f us/op, binary %d B %.1f us/op%n",
+                singleJson.length, singleJsonUs, singleBinary.length, singleBinaryUs);
+        System.out.printf("AdDataCodec %d ads: json %d B %.1f us/op, binary %d B %.1f us/op%n",
+                BATCH_SIZE, batchJson.length, batchJsonUs, batchBinary.length, batchBinaryUs);
+
+        assertTrue(singleBinary.length < singleJson.length);
+        assertTrue(batchBinary.length < batchJson.length);
+    }
+
+    // Helpers
+
+    private interface Decode {
+        Object run();
+    }
+
+    private static double measure(Decode decode) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = decode.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = decode.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        assertNotNull(sink);
+        return elapsed / 1000.0 / MEASURED_ITERATIONS;
+    }
+
+    private static AdData randomAd(Random random) {
+        AdData adData = new AdData();
+        adData.setAdId(randomString(random));
+        adData.setTitle(randomString(random));
+        adData.setDescription(randomString(random));
+        adData.setImageUrl(randomString(random));
+        adData.setVideoUrl(randomString(random));
+        adData.setClickUrl(randomString(random));
+        adData.setCtaText(randomString(random));
+        adData.setSponsoredLabel(randomString(random));
+        if (random.nextBoolean()) {
+            adData.setRewardType(randomString(random));
+            adData.setRewardAmount(random.nextInt());
+        }
+        return adData;
+    }
+
+    // Mix of empty, ASCII, multi-byte and supplementary-plane text
+    private static String randomString(Random random) {
+        int length = random.nextInt(4) == 0 ? 0 : random.nextInt(random.nextInt(10) == 0 ? 2000 : 40);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(4)) {
+                case 0: value.append((char) (0x20 + random.nextInt(0x5F))); break;
+                case 1: value.append((char) (0xA0 + random.nextInt(0x700))); break;
+                case 2: value.append((char) (0x4E00 + random.nextInt(0x5000))); break;
+                default: value.appendCodePoint(0x1F300 + random.nextInt(0x300)); break;
+            }
+        }
+        return value.toString();
+    }
+
+    private static AdData typicalAd(int i, Random random) {
+        AdData adData = new AdData();
+        adData.setAdId("ad_" + i + "_" + Integer.toHexString(random.nextInt()));
+        adData.setTitle("Premium Product " + i);
+        adData.setDescription("Limited time offer with free shipping on every order - shop now");
+        adData.setImageUrl("https://cdn.example.com/creatives/" + i + "/image_1200x628.jpg");
+        adData.setVideoUrl("https://cdn.example.com/creatives/" + i + "/video_720p.mp4");
+        adData.setClickUrl("https://example.com/click?ad=" + i + "&src=sdk");
+        adData.setCtaText("Shop Now");
+        adData.setSponsoredLabel("Sponsored");
+        adData.setRewardType("coins");
+        adData.setRewardAmount(10 + i);
+        return adData;
+    }
+
+    private static byte[] toJson(List<AdData> ads, boolean batch) throws Exception {
+        JSONArray entries = new JSONArray();
+        for (AdData adData : ads) {
+            JSONObject ad = new JSONObject();
+            ad.put("adId", adData.getAdId());
+            ad.put("title", adData.getTitle());
+            ad.put("description", adData.getDescription());
+            ad.put("imageUrl", adData.getImageUrl());
+            ad.put("videoUrl", adData.getVideoUrl());
+            ad.put("clickUrl", adData.getClickUrl());
+            ad.put("ctaText", adData.getCtaText());
+            ad.put("sponsoredLabel", adData.getSponsoredLabel());
+            JSONObject reward = new JSONObject();
+            reward.put("type", adData.getRewardType());
+            reward.put("amount", adData.getRewardAmount());
+            ad.put("reward", reward);
+            entries.put(new JSONObject().put("ad", ad));
+        }
+
+        JSONObject response = new JSONObject().put("success", true);
+        if (batch) {
+            response.put("ads", entries);
+        } else {
+            response.put("ad", entries.getJSONObject(0).getJSONObject("ad"));
+        }
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void assertSameAd(AdData expected, AdData actual) {
+        assertEquals(expected.getAdId(), actual.getAdId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getImageUrl(), actual.getImageUrl());
+        assertEquals(expected.getVideoUrl(), actual.getVideoUrl());
+        assertEquals(expected.getClickUrl(), actual.getClickUrl());
+        assertEquals(expected.getCtaText(), actual.getCtaText());
+        assertEquals(expected.getSponsoredLabel(), actual.getSponsoredLabel());
+        assertEquals(expected.getRewardType(), actual.getRewardType());
+        assertEquals(expected.getRewardAmount(), actual.getRewardAmount());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.AdConfig;
+import com.example.ad_integration_sdk.utils.AdSize;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Inventory cache behaviour: FIFO serving, TTL expiry, depth and size bounds,
+ * refill reservations and the per-placement counters.
+ */
+public class AdInventoryCacheTest {
+
+    private static final String PLACEMENT = "home_banner";
+    private static final String TYPE = "banner";
+
+    private AdInventoryCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new AdInventoryCache();
+        cache.setMaxAgeMs(60_000);
+    }
+
+    @Test
+    public void servesOldestFirstAndCountsHitsAndMisses() {
+        AdData first = ad("a", 0);
+        AdData second = ad("b", 0);
+        cache.offer(PLACEMENT, TYPE, first);
+        cache.offer(PLACEMENT, TYPE, second);
+
+        assertSame(first, cache.poll(PLACEMENT, TYPE));
+        assertSame(second, cache.poll(PLACEMENT, TYPE));
+        assertNull(cache.poll(PLACEMENT, TYPE));
+        assertNull(cache.poll(PLACEMENT, "interstitial"));
+
+        AdInventoryCache.Stats stats = cache.getStats(PLACEMENT, TYPE);
+        assertEquals(2, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void expiresEntriesPastTtl() {
+        cache.offer(PLACEMENT, TYPE, ad("old", 30_000));
+        cache.offer(PLACEMENT, TYPE, ad("new", 0));
+        cache.setMaxAgeMs(10_000);
+
+        assertEquals("new", cache.poll(PLACEMENT, TYPE).getAdId());
+        assertEquals(1, cache.getStats(PLACEMENT, TYPE).expirations);
+
+        // Already stale on arrival: never cached
+        cache.offer(PLACEMENT, TYPE, ad("stale", 20_000));
+        assertEquals(0, cache.getReadyCount(PLACEMENT, TYPE));
+    }
+
+    @Test
+    public void servesStaleWithinGraceOnlyWhenNothingFresh() {
+        cache.setStaleGraceMs(30_000);
+        cache.setDepth(PLACEMENT, TYPE, 3);
+        cache.offer(PLACEMENT, TYPE, ad("old", 50_000));
+        cache.offer(PLACEMENT, TYPE, ad("aging", 5_000));
+        cache.offer(PLACEMENT, TYPE, ad("fresh", 0));
+        cache.setMaxAgeMs(1_000);
+
+        // "old" is past TTL plus grace; "aging" is stale and skipped for the fresh ad
+        assertEquals("fresh", cache.poll(PLACEMENT, TYPE).getAdId());
+        assertEquals(2, cache.getStats(PLACEMENT, TYPE).expirations);
+        assertNull(cache.poll(PLACEMENT, TYPE));
+
+        // Only a stale ad left: it is still served, and counted as such
+        cache.setMaxAgeMs(60_000);
+        cache.offer(PLACEMENT, TYPE, ad("aging2", 5_000));
+        cache.setMaxAgeMs(1_000);
+        AdData served = cache.poll(PLACEMENT, TYPE);
+        assertEquals("aging2", served.getAdId());
+        assertTrue(cache.isStale(served));
+        assertEquals(1, cache.getStats(PLACEMENT, TYPE).staleHits);
+    }
+
+    @Test
+    public void staleAdsDoNotCountTowardsRefillDepth() {
+        cache.setDepth(PLACEMENT, TYPE, 2);
+        cache.offer(PLACEMENT, TYPE, ad("a", 5_000));
+        cache.offer(PLACEMENT, TYPE, ad("b", 5_000));
+        assertEquals(0, cache.reserveRefill(PLACEMENT, TYPE));
+
+        // Both still servable, but both need replacing
+        cache.setStaleGraceMs(60_000);
+        cache.setMaxAgeMs(1_000);
+        assertEquals(2, cache.getReadyCount(PLACEMENT, TYPE));
+        assertEquals(2, cache.reserveRefill(PLACEMENT, TYPE));
+    }
+
+    @Test
+    public void evictsPastDepthAndSizeBound() {
+        cache.setDepth(PLACEMENT, TYPE, 2);
+        cache.offer(PLACEMENT, TYPE, ad("a", 3000));
+        cache.offer(PLACEMENT, TYPE, ad("b", 2000));
+        cache.offer(PLACEMENT, TYPE, ad("c", 1000));
+        assertEquals(2, cache.getReadyCount(PLACEMENT, TYPE));
+        assertEquals(1, cache.getStats(PLACEMENT, TYPE).evictions);
+        assertEquals("b", cache.poll(PLACEMENT, TYPE).getAdId());
+
+        // The size bound evicts the oldest ad across placements
+        cache.setMaxEntries(2);
+        cache.offer("other", TYPE, ad("x", 0));
+        cache.offer("other", TYPE, ad("y", 0));
+        assertEquals(0, cache.getReadyCount(PLACEMENT, TYPE));
+        assertEquals(2, cache.getReadyCount("other", TYPE));
+        assertEquals(2, cache.getStats(PLACEMENT, TYPE).evictions);
+    }
+
+    @Test
+    public void refillReservationsCoverCachedAndInFlightAds() {
+        cache.setDepth(PLACEMENT, TYPE, 3);
+        cache.offer(PLACEMENT, TYPE, ad("a", 0));
+
+        assertEquals(2, cache.reserveRefill(PLACEMENT, TYPE));
+        assertEquals(0, cache.reserveRefill(PLACEMENT, TYPE));
+
+        cache.releaseRefill(PLACEMENT, TYPE);
+        cache.offer(PLACEMENT, TYPE, ad("b", 0));
+        cache.releaseRefill(PLACEMENT, TYPE);
+        assertEquals(1, cache.reserveRefill(PLACEMENT, TYPE));
+    }
+
+    @Test
+    public void sizesAreCachedSeparately() {
+        String banner = InFlightRequests.sizeName(AdSize.BANNER);
+        String leaderboard = InFlightRequests.sizeName(AdSize.LEADERBOARD);
+        AdData bannerAd = ad("banner", 0);
+        cache.offer(PLACEMENT, TYPE, banner, bannerAd);
+
+        assertNull(cache.poll(PLACEMENT, TYPE, leaderboard));
+        assertNull(cache.poll(PLACEMENT, TYPE));
+        assertEquals(1, cache.getReadyCount(PLACEMENT, TYPE, AdSize.BANNER));
+        assertEquals(0, cache.getReadyCount(PLACEMENT, TYPE, AdSize.LEADERBOARD));
+        // A batch request for the same size finds it
+        assertSame(bannerAd, cache.poll(PLACEMENT, TYPE, InFlightRequests.sizeName(AdConfig.AdSize.BANNER_320x50)));
+
+        assertEquals(AdInventoryCache.DEFAULT_DEPTH, cache.reserveRefill(PLACEMENT, TYPE, leaderboard));
+        assertEquals(AdInventoryCache.DEFAULT_DEPTH, cache.reserveRefill(PLACEMENT, TYPE, banner));
+    }
+
+    @Test
+    public void nextStaleAtFollowsOldestFreshAd() {
+        assertEquals(-1, cache.getNextStaleAt(PLACEMENT, TYPE));
+
+        cache.setDepth(PLACEMENT, TYPE, 3);
+        AdData aging = ad("aging", 50_000);
+        AdData fresh = ad("fresh", 10_000);
+        cache.offer(PLACEMENT, TYPE, aging);
+        cache.offer(PLACEMENT, TYPE, fresh);
+        assertEquals(aging.getTimestamp() + 60_000, cache.getNextStaleAt(PLACEMENT, TYPE));
+
+        // Stale ads within the grace window are skipped
+        cache.setStaleGraceMs(60_000);
+        cache.setMaxAgeMs(30_000);
+        assertEquals(fresh.getTimestamp() + 30_000, cache.getNextStaleAt(PLACEMENT, TYPE));
+
+        cache.setMaxAgeMs(5_000);
+        assertEquals(-1, cache.getNextStaleAt(PLACEMENT, TYPE));
+    }
+
+    private static AdData ad(String adId, long ageMs) {
+        AdData adData = new AdData(adId, "https://example.com/" + adId);
+        adData.setTimestamp(System.currentTimeMillis() - ageMs);
+        return adData;
+    }
+}
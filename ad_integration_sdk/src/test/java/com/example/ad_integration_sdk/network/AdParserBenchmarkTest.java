@@ -0,0 +1,258 @@
+package com.example.ad_integration_sdk.network;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM microbenchmark for the streaming parser against the previous tree-based
+ * approach (body read into a String, then a full org.json tree).
+ * Reports time and allocated bytes per parse for single-ad and 50-ad payloads.
+ */
+public class AdParserBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 5000;
+    private static final int BATCH_SIZE = 50;
+
+    @Test
+    public void streamingParser_matchesTreeParser() throws Exception {
+        byte[] single = singleAdPayload();
+        assertSameAd(TreeParser.parseAdResponse(new ByteArrayInputStream(single)),
+                AdParser.parseAdResponse(new ByteArrayInputStream(single)));
+
+        byte[] batch = batchPayload(BATCH_SIZE);
+        List<AdData> expected = TreeParser.parseBatchResponse(new ByteArrayInputStream(batch), BATCH_SIZE);
+        List<AdData> actual = AdParser.parseBatchResponse(new ByteArrayInputStream(batch), BATCH_SIZE);
+        assertEquals(BATCH_SIZE, actual.size());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (expected.get(i) == null) {
+                assertNull(actual.get(i));
+            } else {
+                assertSameAd(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void streamingParser_skipsUnknownFieldsAndRejectsErrors() {
+        String json = "{\"meta\":{\"a\":[1,2,{\"b\":null}]},\"ad\":{\"adId\":\"x\",\"extra\":[true],"
+                + "\"clickUrl\":\"https://example.com\",\"reward\":{\"amount\":\"25\"}},\"success\":true}";
+        AdData ad = AdParser.parseAdResponse(json);
+        assertEquals("x", ad.getAdId());
+        assertEquals("Learn More", ad.getCtaText());
+        assertEquals("coins", ad.getRewardType());
+        assertEquals(25, ad.getRewardAmount());
+
+        try {
+            AdParser.parseAdResponse("{\"success\":false,\"message\":\"no fill\"}");
+            fail("Expected error response to be rejected");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void streamingParser_dropsOnlyMalformedBatchEntries() {
+        String json = "{\"success\":true,\"ads\":["
+                + "{\"ad\":{\"adId\":\"a\",\"clickUrl\":\"https://example.com/a\"}},"
+                + "{\"ad\":{\"adId\":\"b\",\"title\":\"no click url\"}},"
+                + "{\"ad\":{\"clickUrl\":\"https://example.com/c\"}},"
+                + "{\"ad\":{\"adId\":\"d\",\"clickUrl\":\"https://example.com/d\"}}]}";
+        List<AdData> ads = AdParser.parseBatchResponse(json, 4);
+        assertEquals(4, ads.size());
+        assertEquals("a", ads.get(0).getAdId());
+        assertNull(ads.get(1));
+        assertNull(ads.get(2));
+        assertEquals("d", ads.get(3).getAdId());
+
+        // A single ad response still rejects an incomplete ad
+        try {
+            AdParser.parseAdResponse("{\"success\":true,\"ad\":{\"adId\":\"b\"}}");
+            fail("Expected incomplete ad to be rejected");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void benchmark_singleAd() throws Exception {
+        byte[] payload = singleAdPayload();
+        Result tree = measure(() -> TreeParser.parseAdResponse(new ByteArrayInputStream(payload)));
+        Result streaming = measure(() -> AdParser.parseAdResponse(new ByteArrayInputStream(payload)));
+        report("single ad (" + payload.length + " B)", tree, streaming);
+    }
+
+    @Test
+    public void benchmark_fiftyAds() throws Exception {
+        byte[] payload = batchPayload(BATCH_SIZE);
+        Result tree = measure(() -> TreeParser.parseBatchResponse(new ByteArrayInputStream(payload), BATCH_SIZE));
+        Result streaming = measure(() -> AdParser.parseBatchResponse(new ByteArrayInputStream(payload), BATCH_SIZE));
+        report(BATCH_SIZE + " ads (" + payload.length + " B)", tree, streaming);
+    }
+
+    // Harness
+
+    private interface Parse {
+        Object run() throws Exception;
+    }
+
+    private static class Result {
+        final double nsPerOp;
+        final long bytesPerOp;
+
+        Result(double nsPerOp, long bytesPerOp) {
+            this.nsPerOp = nsPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private static Result measure(Parse parse) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = parse.run();
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = parse.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        assertNotNull(sink);
+        return new Result((double) elapsed / MEASURED_ITERATIONS,
+                allocatedBefore < 0 ? -1 : allocated / MEASURED_ITERATIONS);
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void report(String payload, Result tree, Result streaming) {
+        System.out.printf("AdParser %s: tree %.1f us/op %d B/op, streaming %.1f us/op %d B/op%n",
+                payload, tree.nsPerOp / 1000, tree.bytesPerOp,
+                streaming.nsPerOp / 1000, streaming.bytesPerOp);
+    }
+
+    private static void assertSameAd(AdData expected, AdData actual) {
+        assertEquals(expected.getAdId(), actual.getAdId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getImageUrl(), actual.getImageUrl());
+        assertEquals(expected.getVideoUrl(), actual.getVideoUrl());
+        assertEquals(expected.getClickUrl(), actual.getClickUrl());
+        assertEquals(expected.getCtaText(), actual.getCtaText());
+        assertEquals(expected.getSponsoredLabel(), actual.getSponsoredLabel());
+        assertEquals(expected.getRewardType(), actual.getRewardType());
+        assertEquals(expected.getRewardAmount(), actual.getRewardAmount());
+    }
+
+    // Payloads, padded with fields the SDK does not read
+
+    private static byte[] singleAdPayload() {
+        return ("{\"success\":true,\"requestId\":\"req-1\",\"ad\":" + adJson(0) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] batchPayload(int count) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"requestId\":\"req-batch\",\"ads\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"placementId\":\"placement_").append(i).append('"');
+            // Every tenth slot is a no-fill
+            if (i % 10 != 9) json.append(",\"ad\":").append(adJson(i));
+            json.append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String adJson(int i) {
+        return "{\"adId\":\"ad_" + i + "\","
+                + "\"title\":\"Premium Product " + i + "\","
+                + "\"description\":\"Limited time offer with free shipping on every order \\u2013 shop now\","
+                + "\"imageUrl\":\"https://cdn.example.com/creatives/" + i + "/image_1200x628.jpg\","
+                + "\"videoUrl\":\"https://cdn.example.com/creatives/" + i + "/video_720p.mp4\","
+                + "\"clickUrl\":\"https://example.com/click?ad=" + i + "&src=sdk\","
+                + "\"ctaText\":\"Shop Now\","
+                + "\"impressionUrls\":[\"https://t.example.com/i/" + i + "\",\"https://t2.example.com/i/" + i + "\"],"
+                + "\"creative\":{\"width\":1200,\"height\":628,\"mime\":\"image/jpeg\",\"bitrate\":null},"
+                + "\"reward\":{\"type\":\"coins\",\"amount\":" + (10 + i) + "},"
+                + "\"ttlSeconds\":3600}";
+    }
+
+    /** The previous AdParser: buffers the body as a String and builds a JSONObject tree. */
+    private static class TreeParser {
+
+        static AdData parseAdResponse(InputStream in) throws Exception {
+            JSONObject json = new JSONObject(readFully(in));
+            if (!json.optBoolean("success", false)) {
+                throw new Exception("API returned error: " + json.optString("message"));
+            }
+            return parseAd(json.getJSONObject("ad"));
+        }
+
+        static List<AdData> parseBatchResponse(InputStream in, int expectedCount) throws Exception {
+            JSONObject json = new JSONObject(readFully(in));
+            if (!json.optBoolean("success", false)) {
+                throw new Exception("API returned error: " + json.optString("message"));
+            }
+
+            JSONArray adsJson = json.getJSONArray("ads");
+            List<AdData> ads = new ArrayList<>(expectedCount);
+            for (int i = 0; i < expectedCount; i++) {
+                JSONObject entry = adsJson.optJSONObject(i);
+                JSONObject adJson = entry != null ? entry.optJSONObject("ad") : null;
+                ads.add(adJson != null ? parseAd(adJson) : null);
+            }
+            return ads;
+        }
+
+        private static String readFully(InputStream in) throws Exception {
+            StringBuilder body = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    body.append(line);
+                }
+            }
+            return body.toString();
+        }
+
+        private static AdData parseAd(JSONObject adJson) throws Exception {
+            AdData adData = new AdData();
+            adData.setAdId(adJson.getString("adId"));
+            adData.setTitle(adJson.optString("title"));
+            adData.setDescription(adJson.optString("description"));
+            adData.setImageUrl(adJson.optString("imageUrl"));
+            adData.setVideoUrl(adJson.optString("videoUrl"));
+            adData.setClickUrl(adJson.getString("clickUrl"));
+            adData.setCtaText(adJson.optString("ctaText", "Learn More"));
+            adData.setSponsoredLabel(adJson.optString("sponsoredLabel", "Sponsored"));
+
+            if (adJson.has("reward")) {
+                JSONObject reward = adJson.getJSONObject("reward");
+                adData.setRewardType(reward.optString("type", "coins"));
+                adData.setRewardAmount(reward.optInt("amount", 1));
+            }
+            return adData;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.ad_integration_sdk.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Video creative cache against a local server: downloads land as whole files,
+ * the byte budget is enforced least-recently-used first, and leftovers from an
+ * interrupted download are discarded on the next start.
+ */
+public class CreativeCacheTest {
+
+    private static final int CREATIVE_BYTES = 40 * 1024;
+    private static final long WAIT_MS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private HttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new HttpTransport(server.url("/").toString(), HttpTransport.createDefaultClient(),
+                System::currentTimeMillis);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void downloadsOnceAndServesLocalFile() throws Exception {
+        server.enqueue(new MockResponse().setBody(new Buffer().write(creative((byte) 1))));
+        CreativeCache cache = new CreativeCache(folder.newFolder("creatives"), 10 * CREATIVE_BYTES, transport);
+        String url = server.url("/video/a.mp4").toString();
+
+        assertNull(cache.getCachedFile(url));
+        cache.prefetch(url);
+        cache.prefetch(url);
+        awaitCached(cache, url);
+
+        File file = cache.getCachedFile(url);
+        assertNotNull(file);
+        assertArrayEquals(creative((byte) 1), Files.readAllBytes(file.toPath()));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(CREATIVE_BYTES, cache.getSizeBytes());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPastBudget() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody(new Buffer().write(creative((byte) i))));
+        }
+        CreativeCache cache = new CreativeCache(folder.newFolder("creatives"), 2 * CREATIVE_BYTES, transport);
+        String a = server.url("/a.mp4").toString();
+        String b = server.url("/b.mp4").toString();
+        String c = server.url("/c.mp4").toString();
+
+        cache.prefetch(a);
+        awaitCached(cache, a);
+        cache.prefetch(b);
+        awaitCached(cache, b);
+
+        // Touch a so b becomes the eviction candidate
+        assertNotNull(cache.getCachedFile(a));
+        cache.prefetch(c);
+        awaitCached(cache, c);
+
+        assertTrue(cache.isCached(a));
+        assertFalse(cache.isCached(b));
+        assertTrue(cache.isCached(c));
+        assertEquals(2 * CREATIVE_BYTES, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void skipsCreativesLargerThanBudget() throws Exception {
+        server.enqueue(new MockResponse().setBody(new Buffer().write(creative((byte) 7))));
+        File directory = folder.newFolder("creatives");
+        CreativeCache cache = new CreativeCache(directory, CREATIVE_BYTES / 2, transport);
+        String url = server.url("/huge.mp4").toString();
+
+        cache.prefetch(url);
+        server.takeRequest();
+        Thread.sleep(200);
+
+        assertFalse(cache.isCached(url));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void reopenKeepsCompleteFilesAndDropsPartials() throws Exception {
+        server.enqueue(new MockResponse().setBody(new Buffer().write(creative((byte) 3))));
+        File directory = folder.newFolder("creatives");
+        CreativeCache cache = new CreativeCache(directory, 10 * CREATIVE_BYTES, transport);
+        String url = server.url("/a.mp4").toString();
+        cache.prefetch(url);
+        awaitCached(cache, url);
+
+        File partial = new File(directory, "deadbeef.part");
+        Files.write(partial.toPath(), new byte[128]);
+
+        CreativeCache reopened = new CreativeCache(directory, 10 * CREATIVE_BYTES, transport);
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (reopened.getCachedFile(url) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(reopened.getCachedFile(url));
+        assertFalse(partial.exists());
+    }
+
+    private static void awaitCached(CreativeCache cache, String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!cache.isCached(url)) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out downloading " + url);
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] creative(byte seed) {
+        byte[] bytes = new byte[CREATIVE_BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (seed * 31 + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.ad_integration_sdk.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loopback proxy against a throttled origin: a player reading through the proxy
+ * gets the whole creative (and byte ranges) while the cache download is still
+ * running, and the origin is only hit once.
+ */
+public class CreativeProxyTest {
+
+    private static final int CREATIVE_BYTES = 256 * 1024;
+    private static final int THROTTLE_BYTES = 16 * 1024;
+    private static final long THROTTLE_PERIOD_MS = 50;
+    // How long the origin takes to send the whole creative
+    private static final long THROTTLED_DOWNLOAD_MS = CREATIVE_BYTES / THROTTLE_BYTES * THROTTLE_PERIOD_MS;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer origin;
+    private HttpTransport transport;
+    private CreativeCache cache;
+    private CreativeProxy proxy;
+    private OkHttpClient player;
+
+    @Before
+    public void setUp() throws Exception {
+        origin = new MockWebServer();
+        origin.start();
+        transport = new HttpTransport(origin.url("/").toString(), HttpTransport.createDefaultClient(),
+                System::currentTimeMillis);
+        cache = new CreativeCache(folder.newFolder("creatives"), 10L * CREATIVE_BYTES, transport);
+        proxy = new CreativeProxy(cache);
+        assertTrue(proxy.start());
+        player = new OkHttpClient.Builder().readTimeout(10, TimeUnit.SECONDS).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        proxy.stop();
+        transport.shutdown();
+        origin.shutdown();
+    }
+
+    @Test
+    public void streamsWhileDownloadingAndFetchesOnce() throws Exception {
+        byte[] creative = creative();
+        origin.enqueue(throttled(creative));
+        String remoteUrl = origin.url("/video/a.mp4").toString();
+
+        long start = System.nanoTime();
+        try (Response response = player.newCall(new Request.Builder().url(proxy.urlFor(remoteUrl)).build()).execute()) {
+            long headersMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(200, response.code());
+            assertEquals(String.valueOf(CREATIVE_BYTES), response.header("Content-Length"));
+            // Headers arrive long before the throttled download could have finished
+            assertFalse(cache.isCached(remoteUrl));
+            assertTrue("headers after " + headersMs + "ms", headersMs < THROTTLED_DOWNLOAD_MS);
+            assertArrayEquals(creative, response.body().bytes());
+        }
+
+        awaitCached(remoteUrl);
+        assertEquals(1, origin.getRequestCount());
+    }
+
+    @Test
+    public void servesRangesFromPartialFile() throws Exception {
+        byte[] creative = creative();
+        origin.enqueue(throttled(creative));
+        String remoteUrl = origin.url("/video/b.mp4").toString();
+        String proxyUrl = proxy.urlFor(remoteUrl);
+
+        Request ranged = new Request.Builder().url(proxyUrl).header("Range", "bytes=1000-1999").build();
+        try (Response response = player.newCall(ranged).execute()) {
+            assertEquals(206, response.code());
+            assertEquals("bytes 1000-1999/" + CREATIVE_BYTES, response.header("Content-Range"));
+            assertArrayEquals(Arrays.copyOfRange(creative, 1000, 2000), response.body().bytes());
+        }
+
+        Request tail = new Request.Builder().url(proxyUrl).header("Range", "bytes=" + (CREATIVE_BYTES - 100) + "-").build();
+        try (Response response = player.newCall(tail).execute()) {
+            assertEquals(206, response.code());
+            assertArrayEquals(Arrays.copyOfRange(creative, CREATIVE_BYTES - 100, CREATIVE_BYTES), response.body().bytes());
+        }
+
+        Request beyond = new Request.Builder().url(proxyUrl).header("Range", "bytes=" + CREATIVE_BYTES + "-").build();
+        try (Response response = player.newCall(beyond).execute()) {
+            assertEquals(416, response.code());
+        }
+        assertEquals(1, origin.getRequestCount());
+    }
+
+    @Test
+    public void rejectsUnknownPaths() throws Exception {
+        String proxyUrl = proxy.urlFor(origin.url("/video/c.mp4").toString());
+        String forged = proxyUrl.substring(0, proxyUrl.lastIndexOf('/') + 1) + "0000";
+        try (Response response = player.newCall(new Request.Builder().url(forged).build()).execute()) {
+            assertEquals(404, response.code());
+        }
+        assertEquals(0, origin.getRequestCount());
+    }
+
+    // 16 KB every 50 ms: the download takes most of a second
+    private static MockResponse throttled(byte[] body) {
+        return new MockResponse()
+                .setHeader("Content-Type", "video/mp4")
+                .setBody(new Buffer().write(body))
+                .throttleBody(THROTTLE_BYTES, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void awaitCached(String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cache.isCached(url)) {
+            if (System.currentTimeMillis() > deadline) fail("Download never completed");
+            Thread.sleep(10);
+        }
+    }
+
+    private static byte[] creative() {
+        byte[] bytes = new byte[CREATIVE_BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 7 + (i >> 8));
+        }
+        return bytes;
+    }
+}
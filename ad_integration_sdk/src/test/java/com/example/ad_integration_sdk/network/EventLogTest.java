@@ -0,0 +1,185 @@
+package com.example.ad_integration_sdk.network;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tracking event log on a real file: pending records survive a reopen, a torn tail is
+ * dropped, acknowledging everything truncates the log, and a full log is compacted
+ * without losing or reordering pending records.
+ */
+public class EventLogTest {
+
+    private static final int CAPACITY = 1024;
+    private static final int HEADER_SIZE = 40;
+    // "ad-1" + "impression" with the fixed record overhead
+    private static final int RECORD_SIZE = 25 + 4 + 10;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reopenRecoversPendingEvents() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        long first = log.append("ad-1", "impression", 100);
+        long second = log.append("ad-2", "click", 200);
+        long third = log.append("ad-3", "impression", 300);
+        log.ack(second);
+        log.close();
+
+        log = EventLog.open(file, CAPACITY);
+        List<EventLog.LoggedEvent> recovered = log.takeRecovered();
+        assertEquals(2, recovered.size());
+        assertEquals(first, recovered.get(0).sequence);
+        assertEquals("ad-1", recovered.get(0).adId);
+        assertEquals("impression", recovered.get(0).eventType);
+        assertEquals(100, recovered.get(0).timestamp);
+        assertEquals(third, recovered.get(1).sequence);
+        assertEquals("ad-3", recovered.get(1).adId);
+        assertTrue(log.takeRecovered().isEmpty());
+
+        assertTrue(log.append("ad-4", "click", 400) > third);
+        log.close();
+    }
+
+    @Test
+    public void sequencesAreNotReusedAfterTruncation() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        String installId = log.getInstallId();
+        long first = log.append("ad-1", "impression", 100);
+        log.ack(first);
+        log.close();
+
+        log = EventLog.open(file, CAPACITY);
+        assertEquals(installId, log.getInstallId());
+        assertTrue(log.append("ad-2", "impression", 200) > first);
+        log.close();
+
+        EventLog other = EventLog.open(new File(folder.getRoot(), "other.log"), CAPACITY);
+        assertNotEquals(installId, other.getInstallId());
+        other.close();
+    }
+
+    @Test
+    public void tornTailIsDropped() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        log.append("ad-1", "impression", 100);
+        log.append("ad-2", "impression", 200);
+        log.close();
+
+        // The second record's length now runs past the write position, as if cut short
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(HEADER_SIZE + RECORD_SIZE);
+            raw.writeInt(CAPACITY);
+        }
+
+        log = EventLog.open(file, CAPACITY);
+        List<EventLog.LoggedEvent> recovered = log.takeRecovered();
+        assertEquals(1, recovered.size());
+        assertEquals("ad-1", recovered.get(0).adId);
+        assertEquals(1, log.getPendingCount());
+
+        // The torn record's space is reused
+        log.append("ad-3", "impression", 300);
+        log.close();
+
+        log = EventLog.open(file, CAPACITY);
+        assertEquals(List.of("ad-1", "ad-3"), adIds(log.takeRecovered()));
+        log.close();
+    }
+
+    @Test
+    public void ackingEverythingTruncates() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        long first = log.append("ad-1", "impression", 100);
+        long second = log.append("ad-2", "impression", 200);
+        log.ack(first);
+        assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, writePosition(file));
+        log.ack(second);
+        assertEquals(HEADER_SIZE, writePosition(file));
+        assertEquals(0, log.getPendingCount());
+        log.close();
+
+        log = EventLog.open(file, CAPACITY);
+        assertTrue(log.takeRecovered().isEmpty());
+        log.close();
+    }
+
+    @Test
+    public void fullLogIsCompactedKeepingPendingEvents() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        List<Long> sequences = new ArrayList<>();
+        long sequence;
+        while ((sequence = log.append("ad-1", "impression", sequences.size())) >= 0) {
+            sequences.add(sequence);
+        }
+        assertEquals((CAPACITY - HEADER_SIZE) / RECORD_SIZE, sequences.size());
+
+        // Keep the second and the last record pending
+        for (int i = 0; i < sequences.size(); i++) {
+            if (i != 1 && i != sequences.size() - 1) log.ack(sequences.get(i));
+        }
+        log.compact();
+        assertEquals(HEADER_SIZE + 2 * RECORD_SIZE, writePosition(file));
+        assertFalse(new File(file.getPath() + ".compact").exists());
+
+        long next = log.append("ad-2", "click", 999);
+        assertTrue(next > sequences.get(sequences.size() - 1));
+        // Acks still find records at their new offsets
+        log.ack(sequences.get(1));
+        log.close();
+
+        log = EventLog.open(file, CAPACITY);
+        List<EventLog.LoggedEvent> recovered = log.takeRecovered();
+        assertEquals(2, recovered.size());
+        assertEquals((long) sequences.get(sequences.size() - 1), recovered.get(0).sequence);
+        assertEquals(next, recovered.get(1).sequence);
+        assertEquals("ad-2", recovered.get(1).adId);
+        log.close();
+    }
+
+    @Test
+    public void interruptedCompactionLeavesLogIntact() throws Exception {
+        File file = new File(folder.getRoot(), "events.log");
+        EventLog log = EventLog.open(file, CAPACITY);
+        log.append("ad-1", "impression", 100);
+        log.close();
+
+        File leftover = new File(file.getPath() + ".compact");
+        Files.write(leftover.toPath(), new byte[CAPACITY]);
+
+        log = EventLog.open(file, CAPACITY);
+        assertEquals(List.of("ad-1"), adIds(log.takeRecovered()));
+        assertFalse(leftover.exists());
+        log.close();
+    }
+
+    private static int writePosition(File file) throws Exception {
+        try (RandomAccessFile raw = new RandomAccessFile(file, "r")) {
+            raw.seek(8);
+            return raw.readInt();
+        }
+    }
+
+    private static List<String> adIds(List<EventLog.LoggedEvent> events) {
+        List<String> ids = new ArrayList<>();
+        for (EventLog.LoggedEvent event : events) {
+            ids.add(event.adId);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.ad_integration_sdk.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Retry behaviour of the shared transport against a local server: backoff bounds, the
+ * retry cap, the whole-request deadline, circuit breaker transitions and cancellation.
+ */
+public class HttpTransportRetryTest {
+
+    private static final long WAIT_S = 10;
+
+    private static final int FAILURE_THRESHOLD = 2;
+    private static final long OPEN_DURATION_MS = 30000;
+
+    private final AtomicLong clock = new AtomicLong(1000);
+    private MockWebServer server;
+    private HttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new HttpTransport(server.url("/").toString(), HttpTransport.createDefaultClient(), clock::get);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void backoffIsJitteredUpToACappedExponential() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(policy.delayForRetry(0) <= 100);
+            assertTrue(policy.delayForRetry(2) <= 400);
+            long capped = policy.delayForRetry(10);
+            assertTrue(capped >= 0 && capped <= 1000);
+        }
+        assertTrue(RetryPolicy.isRetryableStatus(503));
+        assertTrue(RetryPolicy.isRetryableStatus(429));
+        assertFalse(RetryPolicy.isRetryableStatus(404));
+    }
+
+    @Test
+    public void retriesStopAtTheCap() throws Exception {
+        useTransport(new RetryPolicy(2, 1, 1));
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        Result result = send();
+        assertEquals(503, result.code);
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, transport.getRetryCount());
+    }
+
+    @Test
+    public void retriedRequestSucceedsAfterNetworkFailure() throws Exception {
+        useTransport(new RetryPolicy(2, 1, 1));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        Result result = send();
+        assertEquals(200, result.code);
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, breaker().getConsecutiveFailures());
+    }
+
+    @Test
+    public void breakerCountsOneFailurePerRequestThenOpens() throws Exception {
+        useTransport(new RetryPolicy(2, 1, 1));
+        for (int i = 0; i < 6; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        send();
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, breaker().getConsecutiveFailures());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+
+        send();
+        assertEquals(6, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        Result failedFast = send();
+        assertNotNull(failedFast.failure);
+        assertEquals(6, server.getRequestCount());
+        assertEquals(1, transport.getFailFastCount());
+    }
+
+    @Test
+    public void halfOpenTrialClosesOrReopensTheBreaker() throws Exception {
+        useTransport(new RetryPolicy(2, 1, 1));
+        for (int i = 0; i < 2 * 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        send();
+        send();
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        // A failed trial is not retried and reopens the breaker
+        clock.addAndGet(OPEN_DURATION_MS);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        assertEquals(503, send().code);
+        assertEquals(7, server.getRequestCount());
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        clock.addAndGet(OPEN_DURATION_MS);
+        server.enqueue(new MockResponse().setBody("{}"));
+        assertEquals(200, send().code);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+        assertEquals(0, breaker().getConsecutiveFailures());
+    }
+
+    @Test
+    public void cancelDuringBackoffEndsTheRequest() throws Exception {
+        useTransport(new RetryPolicy(3, 2000, 2000));
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        Result result = new Result();
+        HttpTransport.Handle handle = transport.enqueue(request(), result);
+        // Wait for the first attempt, then cancel while its retry is pending
+        assertNotNull(server.takeRequest(WAIT_S, TimeUnit.SECONDS));
+        handle.cancel();
+
+        assertTrue(result.done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals("Canceled", result.failure);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, breaker().getConsecutiveFailures());
+    }
+
+    @Test
+    public void cancelInFlightIsNotAFailure() throws Exception {
+        useTransport(new RetryPolicy(3, 1, 1));
+        server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(2, TimeUnit.SECONDS));
+
+        Result result = new Result();
+        HttpTransport.Handle handle = transport.enqueue(request(), result);
+        assertNotNull(server.takeRequest(WAIT_S, TimeUnit.SECONDS));
+        handle.cancel();
+
+        assertTrue(result.done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals("Canceled", result.failure);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, breaker().getConsecutiveFailures());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    public void callDeadlineCutsASlowAttemptShort() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(3, TimeUnit.SECONDS));
+
+        Result result = new Result();
+        long start = System.nanoTime();
+        transport.enqueue(request(), new HttpTransport.Timeouts(1000, 5000, 500), result);
+
+        assertTrue(result.done.await(WAIT_S, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertNotNull(result.failure);
+        assertTrue("took " + elapsedMs + "ms", elapsedMs < 2000);
+        assertEquals(1, result.timeouts.size());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void noRetryIsScheduledPastTheDeadline() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        Result result = new Result();
+        long start = System.nanoTime();
+        transport.enqueue(request(), new HttpTransport.Timeouts(1000, 1000, 300), result);
+
+        assertTrue(result.done.await(WAIT_S, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // The last 503 is handed over once no retry fits before the deadline
+        assertEquals(503, result.code);
+        assertTrue("took " + elapsedMs + "ms", elapsedMs < 1000);
+        assertTrue(result.timeouts.isEmpty());
+    }
+
+    private void useTransport(RetryPolicy policy) {
+        transport.shutdown();
+        transport = new HttpTransport(server.url("/").toString(), HttpTransport.createDefaultClient(),
+                policy, FAILURE_THRESHOLD, OPEN_DURATION_MS, clock::get);
+    }
+
+    private Result send() throws Exception {
+        Result result = new Result();
+        transport.enqueue(request(), result);
+        assertTrue(result.done.await(WAIT_S, TimeUnit.SECONDS));
+        return result;
+    }
+
+    private CircuitBreaker breaker() {
+        return transport.breakerFor(server.getHostName());
+    }
+
+    private Request request() {
+        return new Request.Builder()
+                .url(transport.resolve("ads/load"))
+                .post(RequestBody.create("{}", HttpTransport.JSON))
+                .build();
+    }
+
+    /** Records the outcome of one request. */
+    static class Result implements HttpTransport.ResponseCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Long> timeouts = new CopyOnWriteArrayList<>();
+        volatile int code;
+        volatile String failure;
+
+        @Override
+        public void onResponse(Response response) {
+            code = response.code();
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(String error) {
+            failure = error;
+            done.countDown();
+        }
+
+        @Override
+        public void onAttemptTimedOut(long elapsedMs) {
+            timeouts.add(elapsedMs);
+        }
+    }
+}
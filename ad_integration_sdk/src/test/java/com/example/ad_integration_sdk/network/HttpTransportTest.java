@@ -0,0 +1,165 @@
+package com.example.ad_integration_sdk.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local stand-in server test for the shared transport.
+ * Runs back-to-back banner, interstitial and rewarded loads over TLS and checks
+ * they share a single HTTP/2 connection, reporting p50/p99 load latency.
+ */
+public class HttpTransportTest {
+
+    private static final String[] AD_TYPES = {"banner", "interstitial", "rewarded"};
+    private static final int ROUNDS = 50;
+
+    private MockWebServer server;
+    private HttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        String localhost = InetAddress.getByName("localhost").getCanonicalHostName();
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName(localhost)
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate)
+                .build();
+        HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(certificate.certificate())
+                .build();
+
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        server.start();
+
+        // Same pool, dispatcher and protocols as production; only trust differs
+        OkHttpClient client = HttpTransport.createDefaultClient().newBuilder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .build();
+        transport = new HttpTransport(server.url("/v1/").toString(), client, System::currentTimeMillis);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void backToBackLoads_reuseOneHttp2Connection() throws Exception {
+        int total = ROUNDS * AD_TYPES.length;
+        for (int i = 0; i < total; i++) {
+            server.enqueue(new MockResponse().setBody("{\"success\":true}"));
+        }
+
+        List<Long> latenciesNs = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String adType : AD_TYPES) {
+                long start = System.nanoTime();
+                Protocol protocol = load(adType);
+                latenciesNs.add(System.nanoTime() - start);
+                assertEquals(Protocol.HTTP_2, protocol);
+            }
+        }
+
+        int newConnections = 0;
+        for (int i = 0; i < total; i++) {
+            RecordedRequest recorded = server.takeRequest(5, TimeUnit.SECONDS);
+            assertNotNull(recorded);
+            if (recorded.getSequenceNumber() == 0) {
+                newConnections++;
+            }
+        }
+
+        assertEquals("All loads should share one TLS connection", 1, newConnections);
+        assertEquals(1, transport.getConnectionCount());
+
+        Collections.sort(latenciesNs);
+        System.out.println(String.format("HttpTransport loads=%d connections=%d p50=%.2fms p99=%.2fms",
+                total, newConnections,
+                percentile(latenciesNs, 0.50) / 1e6,
+                percentile(latenciesNs, 0.99) / 1e6));
+    }
+
+    @Test
+    public void concurrentLoads_multiplexOverPooledConnection() throws Exception {
+        // Warm the pool so later calls find an established connection
+        server.enqueue(new MockResponse().setBody("{\"success\":true}"));
+        load("banner");
+
+        int concurrent = 30;
+        for (int i = 0; i < concurrent; i++) {
+            server.enqueue(new MockResponse().setBody("{\"success\":true}"));
+        }
+        CountDownLatch latch = new CountDownLatch(concurrent);
+        for (int i = 0; i < concurrent; i++) {
+            transport.postJson("ads/load", "{\"adType\":\"" + AD_TYPES[i % AD_TYPES.length] + "\"}",
+                    new HttpTransport.ResponseCallback() {
+                        @Override
+                        public void onResponse(Response response) {
+                            latch.countDown();
+                        }
+
+                        @Override
+                        public void onFailure(String error) {
+                            latch.countDown();
+                        }
+                    });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, transport.getConnectionCount());
+    }
+
+    private Protocol load(String adType) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<Protocol> protocol = new AtomicReference<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        transport.postJson("ads/load", "{\"adType\":\"" + adType + "\"}", new HttpTransport.ResponseCallback() {
+            @Override
+            public void onResponse(Response response) throws Exception {
+                response.body().string();
+                protocol.set(response.protocol());
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                failure.set(error);
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        return protocol.get();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
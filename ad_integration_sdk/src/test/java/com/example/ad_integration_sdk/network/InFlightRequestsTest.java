@@ -0,0 +1,92 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.AdConfig;
+import com.example.ad_integration_sdk.utils.AdSize;
+import com.example.ad_integration_sdk.utils.Constants;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * In-flight load table: single and batch loads of one placement share a key, later
+ * callers attach to the first, and every waiter hears the result even if one throws.
+ */
+public class InFlightRequestsTest {
+
+    private static final String PLACEMENT = "placement-1";
+
+    @Test
+    public void singleAndBatchSizesShareOneKey() {
+        assertEquals(InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.BANNER),
+                InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdConfig.AdSize.BANNER_320x50));
+        assertEquals(InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.MEDIUM_RECTANGLE),
+                InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdConfig.AdSize.BANNER_300x250));
+        assertEquals(InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.LEADERBOARD),
+                InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdConfig.AdSize.BANNER_728x90));
+        assertEquals(InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, (AdSize) null),
+                InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, (AdConfig.AdSize) null));
+
+        assertNotEquals(InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.BANNER),
+                InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.LEADERBOARD));
+    }
+
+    @Test
+    public void laterCallersAttachToTheFirst() {
+        InFlightRequests requests = new InFlightRequests();
+        String key = InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.BANNER);
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        assertTrue(requests.join(key, first));
+        assertFalse(requests.join(key, second));
+        assertEquals(1, requests.getCoalescedCount());
+
+        AdData ad = new AdData("ad-1", "https://example.com");
+        requests.completeLoaded(key, ad);
+        assertSame(ad, first.loaded);
+        assertSame(ad, second.loaded);
+
+        // The key is free again once completed
+        assertTrue(requests.join(key, new Recorder()));
+    }
+
+    @Test
+    public void throwingWaiterDoesNotStrandTheRest() {
+        InFlightRequests requests = new InFlightRequests();
+        String key = InFlightRequests.key(PLACEMENT, Constants.AD_TYPE_BANNER, AdSize.BANNER);
+        requests.join(key, new NetworkClient.AdLoadCallback() {
+            @Override
+            public void onAdLoaded(AdData adData) {
+                throw new IllegalStateException("publisher bug");
+            }
+
+            @Override
+            public void onAdFailedToLoad(String error) {
+                throw new IllegalStateException("publisher bug");
+            }
+        });
+        Recorder later = new Recorder();
+        requests.join(key, later);
+
+        requests.completeFailed(key, Constants.ERROR_NO_ADS);
+        assertEquals(Constants.ERROR_NO_ADS, later.error);
+        assertTrue(requests.join(key, new Recorder()));
+    }
+
+    /** Remembers what it was told. */
+    private static class Recorder implements NetworkClient.AdLoadCallback {
+        AdData loaded;
+        String error;
+
+        @Override
+        public void onAdLoaded(AdData adData) {
+            loaded = adData;
+        }
+
+        @Override
+        public void onAdFailedToLoad(String error) {
+            this.error = error;
+        }
+    }
+}
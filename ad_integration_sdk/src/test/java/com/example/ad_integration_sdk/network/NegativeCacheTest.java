@@ -0,0 +1,91 @@
+package com.example.ad_integration_sdk.network;
+
+import com.example.ad_integration_sdk.utils.Constants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Negative cache: no-fill and invalid-placement answers back off exponentially
+ * up to a cap, other errors are ignored, and a fill or the backoff expiring clears it.
+ */
+public class NegativeCacheTest {
+
+    private static final String PLACEMENT = "home_banner";
+    private static final String TYPE = "banner";
+
+    private final AtomicLong clock = new AtomicLong(1000);
+    private NegativeCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new NegativeCache(clock::get);
+        cache.setBackoff(10_000, 60_000, 35_000);
+    }
+
+    @Test
+    public void noFillBacksOffExponentiallyUpToCap() {
+        assertNull(cache.check(PLACEMENT, TYPE));
+
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        assertBackoff(10_000);
+        assertEquals(Constants.ERROR_NO_ADS, cache.check(PLACEMENT, TYPE));
+
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        assertBackoff(20_000);
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        assertBackoff(35_000);
+
+        assertNull(cache.check("other", TYPE));
+        assertNull(cache.check(PLACEMENT, "interstitial"));
+        assertEquals(1, cache.getSuppressedCount());
+    }
+
+    @Test
+    public void fillClearsBackoff() {
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        cache.recordFill(PLACEMENT, TYPE);
+        assertNull(cache.check(PLACEMENT, TYPE));
+
+        // Starts again from the base
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        assertBackoff(10_000);
+    }
+
+    @Test
+    public void invalidPlacementUsesItsOwnBaseAndOtherErrorsAreIgnored() {
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NETWORK_ERROR);
+        cache.recordFailure(PLACEMENT, TYPE, "HTTP Error: 500");
+        assertNull(cache.check(PLACEMENT, TYPE));
+
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_INVALID_PLACEMENT);
+        // Capped below the 60 s base
+        assertBackoff(35_000);
+        assertEquals(Constants.ERROR_INVALID_PLACEMENT, cache.check(PLACEMENT, TYPE));
+    }
+
+    @Test
+    public void backoffExpires() {
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        clock.addAndGet(9_999);
+        assertEquals(1, cache.getBackoffRemainingMs(PLACEMENT, TYPE));
+        assertEquals(Constants.ERROR_NO_ADS, cache.check(PLACEMENT, TYPE));
+
+        clock.addAndGet(1);
+        assertEquals(0, cache.getBackoffRemainingMs(PLACEMENT, TYPE));
+        assertNull(cache.check(PLACEMENT, TYPE));
+
+        // The next no-fill still doubles: expiry lets a load out but keeps the history
+        cache.recordFailure(PLACEMENT, TYPE, Constants.ERROR_NO_ADS);
+        assertBackoff(20_000);
+    }
+
+    private void assertBackoff(long expectedMs) {
+        assertEquals(expectedMs, cache.getBackoffRemainingMs(PLACEMENT, TYPE));
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.ad_integration_sdk.network;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tracking batches against a local server: size-triggered and explicit flushes, the
+ * gzip-compressed body, per-event callbacks, the age-limit flush, and immediate
+ * acknowledgement in test mode. A manual scheduler stands in for the main looper: callbacks
+ * run on the calling thread and delayed tasks run when the test says so.
+ */
+public class TrackingPipelineTest {
+
+    private static final long WAIT_S = 10;
+    private static final String PUBLISHER = "test_publisher";
+
+    private MockWebServer server;
+    private HttpTransport transport;
+    private final List<String> results = new CopyOnWriteArrayList<>();
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new HttpTransport(server.url("/").toString(), HttpTransport.createDefaultClient(),
+                System::currentTimeMillis);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void fullBatchIsSentAsOneGzipRequest() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        TrackingPipeline pipeline = pipeline(false);
+        pipeline.setBatchPolicy(3, 60000);
+
+        CountDownLatch done = new CountDownLatch(3);
+        pipeline.enqueue("ad1", "impression", callback(done));
+        pipeline.enqueue("ad1", "click", callback(done));
+        assertNull(server.takeRequest(200, TimeUnit.MILLISECONDS));
+        pipeline.enqueue("ad2", "impression", callback(done));
+
+        RecordedRequest request = server.takeRequest(WAIT_S, TimeUnit.SECONDS);
+        assertNotNull(request);
+        assertEquals("/ads/track/batch", request.getPath());
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertNotNull(request.getHeader("Idempotency-Key"));
+
+        JSONObject body = new JSONObject(gunzip(request.getBody().readByteArray()));
+        assertEquals(PUBLISHER, body.getString("publisherId"));
+        JSONArray events = body.getJSONArray("events");
+        assertEquals(3, events.length());
+        assertEquals("ad1", events.getJSONObject(0).getString("adId"));
+        assertEquals("click", events.getJSONObject(1).getString("eventType"));
+        assertEquals("ad2", events.getJSONObject(2).getString("adId"));
+        assertNotEquals(events.getJSONObject(0).getString("eventId"), events.getJSONObject(1).getString("eventId"));
+
+        assertTrue(done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals(3, results.size());
+        assertFalse(results.contains("failed"));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, pipeline.getBatchesSent());
+        assertEquals(3, pipeline.getEventsSent());
+    }
+
+    @Test
+    public void flushAndBackgroundSendPartialBatches() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(200));
+        TrackingPipeline pipeline = pipeline(false);
+
+        CountDownLatch done = new CountDownLatch(3);
+        pipeline.enqueue("ad1", "impression", callback(done));
+        pipeline.enqueue("ad2", "impression", callback(done));
+        pipeline.flush();
+        assertEquals(2, events(server.takeRequest(WAIT_S, TimeUnit.SECONDS)).length());
+
+        // Nothing buffered: no empty batch
+        pipeline.flush();
+        pipeline.enqueue("ad3", "click", callback(done));
+        pipeline.onAppBackground();
+        assertEquals(1, events(server.takeRequest(WAIT_S, TimeUnit.SECONDS)).length());
+
+        assertTrue(done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, pipeline.getBatchesSent());
+    }
+
+    @Test
+    public void ageLimitFlushesPartialBatch() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        TrackingPipeline pipeline = pipeline(false);
+        pipeline.setBatchPolicy(10, 5000);
+
+        CountDownLatch done = new CountDownLatch(2);
+        pipeline.enqueue("ad1", "impression", callback(done));
+        pipeline.enqueue("ad2", "impression", callback(done));
+        // Only the first event of a batch arms the timer
+        assertEquals(1, scheduler.delayed.size());
+        assertEquals(5000L, (long) scheduler.delays.get(0));
+        assertEquals(0, server.getRequestCount());
+
+        scheduler.runDelayed();
+        assertEquals(2, events(server.takeRequest(WAIT_S, TimeUnit.SECONDS)).length());
+        assertTrue(done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals(1, pipeline.getBatchesSent());
+    }
+
+    @Test
+    public void sizeFlushCancelsAgeTimer() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(200));
+        TrackingPipeline pipeline = pipeline(false);
+        pipeline.setBatchPolicy(2, 5000);
+
+        CountDownLatch done = new CountDownLatch(2);
+        pipeline.enqueue("ad1", "impression", callback(done));
+        assertEquals(1, scheduler.delayed.size());
+        pipeline.enqueue("ad2", "impression", callback(done));
+
+        assertTrue(scheduler.delayed.isEmpty());
+        assertTrue(done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void rejectedBatchFailsEveryEvent() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(400));
+        TrackingPipeline pipeline = pipeline(false);
+        pipeline.setBatchPolicy(2, 60000);
+
+        CountDownLatch done = new CountDownLatch(2);
+        pipeline.enqueue("ad1", "impression", callback(done));
+        pipeline.enqueue("ad2", "impression", callback(done));
+
+        assertTrue(done.await(WAIT_S, TimeUnit.SECONDS));
+        assertEquals(2, results.size());
+        assertFalse(results.contains("success"));
+    }
+
+    @Test
+    public void testModeAcknowledgesEachEventAtOnce() throws Exception {
+        TrackingPipeline pipeline = pipeline(true);
+
+        pipeline.enqueue("ad1", "impression", callback(new CountDownLatch(1)));
+        assertEquals(1, results.size());
+        assertEquals("success", results.get(0));
+        pipeline.enqueue("ad1", "click", callback(new CountDownLatch(1)));
+        assertEquals(2, results.size());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    private TrackingPipeline pipeline(boolean isTestMode) {
+        return new TrackingPipeline(transport, PUBLISHER, isTestMode, scheduler);
+    }
+
+    private NetworkClient.TrackingCallback callback(CountDownLatch done) {
+        return new NetworkClient.TrackingCallback() {
+            @Override
+            public void onTrackingSuccess() {
+                results.add("success");
+                done.countDown();
+            }
+
+            @Override
+            public void onTrackingFailed(String error) {
+                results.add("failed");
+                done.countDown();
+            }
+        };
+    }
+
+    /** Runs tasks inline and holds delayed ones until {@link #runDelayed()}. */
+    private static class ManualScheduler implements Scheduler {
+        final List<Runnable> delayed = new CopyOnWriteArrayList<>();
+        final List<Long> delays = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void executeDelayed(Runnable task, long delayMs) {
+            delayed.add(task);
+            delays.add(delayMs);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            delayed.remove(task);
+        }
+
+        void runDelayed() {
+            List<Runnable> due = new ArrayList<>(delayed);
+            delayed.clear();
+            for (Runnable task : due) {
+                task.run();
+            }
+        }
+    }
+
+    private static JSONArray events(RecordedRequest request) throws Exception {
+        assertNotNull(request);
+        return new JSONObject(gunzip(request.getBody().readByteArray())).getJSONArray("events");
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+}